@@ -0,0 +1,80 @@
+package avl;
+
+// Author: Ben Fry-Holman
+//Date: 7/18/2024
+//Purpose: Raw-byte line keys for Unique
+
+import java.util.Arrays;
+
+/** A line of input held as raw bytes, usable as a hash table key. A ByteLine
+ * can either own a private copy of its bytes or act as a view onto a shared
+ * buffer, so that a line can be hashed and looked up without first being
+ * decoded into a String. */
+public class ByteLine {
+
+    private byte[] buf; // backing bytes (shared for views, owned for copies)
+    private int start; // index of the first byte of the line in buf
+    private int length; // number of bytes in the line
+    private int hash; // cached hash of buf[start..start+length-1]
+
+    /**
+     * constructor: an empty view; call set before using it as a key
+     */
+    public ByteLine() {
+    }
+
+    /**
+     * Point this view at buf[start..start+length-1] and hash those bytes. The
+     * bytes are not copied, so buf must not change while the view is in use.
+     */
+    public void set(byte[] buf, int start, int length) {
+        this.buf = buf;
+        this.start = start;
+        this.length = length;
+        int h = 1;
+        for (int i = start; i < start + length; i++) {
+            h = 31 * h + buf[i];
+        }
+        hash = h;
+    }
+
+    /**
+     * Return a ByteLine that owns a copy of this line's bytes
+     */
+    public ByteLine copy() {
+        ByteLine line = new ByteLine();
+        line.buf = Arrays.copyOfRange(buf, start, start + length);
+        line.start = 0;
+        line.length = length;
+        line.hash = hash;
+        return line;
+    }
+
+    /**
+     * Return the number of bytes in the line
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * equals: two lines are equal if they hold the same bytes
+     */
+    @Override
+    public boolean equals(Object ob) {
+        if (!(ob instanceof ByteLine)) {
+            return false;
+        }
+        ByteLine other = (ByteLine) ob;
+        return hash == other.hash && Arrays.equals(buf, start, start + length,
+                other.buf, other.start, other.start + other.length);
+    }
+
+    /**
+     * Returns the hash computed over the line's bytes
+     */
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -4,23 +4,37 @@ package avl;
 //Date: 7/18/2024
 //Purpose: AVL and BST trees
 
+import heap.HashTable;
+
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
 import java.util.ArrayList;
 import java.util.Scanner;
 
 public class Unique {
 
     /**
-     * Main program: prints the number of unique lines in a given file by one of two methods
+     * Main program: prints the number of unique lines in a given file by one of three methods
      */
     public static void main(String[] args) {
         if (args.length != 2) {
-            System.out.println("Requires 2 arguments: naive or avl and a filename.");
+            System.out.println("Requires 2 arguments: naive, avl or hash and a filename.");
             return;
         }
         File f = new File(args[1]);
         try {
+            if (args[0].equals("hash")) {
+                try (InputStream in = new FileInputStream(f)) {
+                    System.out.println("Finding unique lines in " + args[1]);
+                    System.out.println("Hash:");
+                    System.out.println(hashUnique(in));
+                }
+                return;
+            }
             Scanner sc = new Scanner(f);
             System.out.println("Finding unique lines in " + args[1]);
             if (args[0].equals("naive")) {
@@ -33,13 +47,15 @@ public class Unique {
             }
         } catch (FileNotFoundException exc) {
             System.out.println("Could not find file " + args[1] + ":" + f.getAbsolutePath());
+        } catch (IOException exc) {
+            System.out.println("Could not read file " + args[1] + ": " + exc.getMessage());
         }
     }
 
     /**
      * Return the number of unique lines available to be read by sc
      */
-    private static int naiveUnique(Scanner sc) {
+    static int naiveUnique(Scanner sc) {
         // unique lines seen so far
         ArrayList<String> seen = new ArrayList<String>();
         while (sc.hasNextLine()) {
@@ -60,7 +76,7 @@ public class Unique {
     /**
      * Return the number of unique lines available to be read by sc
      */
-    private static int avlUnique(Scanner sc) {
+    static int avlUnique(Scanner sc) {
         // create new tree
         AVL avlTree = new AVL();
         
@@ -74,4 +90,57 @@ public class Unique {
         // return size
         return avlTree.getSize();
     }
+
+    /**
+     * Return the number of unique lines available to be read from in. Lines are
+     * hashed and compared as raw bytes, so a duplicate line is never decoded
+     * into a String or copied; only the first occurrence of each line is
+     * copied into the table. Like Scanner.nextLine, "\n", "\r\n" and "\r"
+     * all end a line.
+     */
+    static int hashUnique(InputStream in) throws IOException {
+        HashTable<ByteLine, Boolean> seen = new HashTable<ByteLine, Boolean>();
+        ByteLine probe = new ByteLine();
+        byte[] chunk = new byte[1 << 16];
+        byte[] line = new byte[256]; // bytes of the line being assembled
+        int len = 0; // number of bytes in line
+        boolean pending = false; // true if a line has started but not ended
+        boolean afterCR = false; // true if the last byte read was '\r'
+        int n;
+        while ((n = in.read(chunk)) > 0) {
+            for (int i = 0; i < n; i++) {
+                byte b = chunk[i];
+                if (b == '\n' && afterCR) {
+                    // second half of a "\r\n" line ending
+                    afterCR = false;
+                    continue;
+                }
+                afterCR = b == '\r';
+                if (b == '\n' || b == '\r') {
+                    addLine(seen, probe, line, len);
+                    len = 0;
+                    pending = false;
+                } else {
+                    if (len == line.length) {
+                        line = Arrays.copyOf(line, line.length * 2);
+                    }
+                    line[len++] = b;
+                    pending = true;
+                }
+            }
+        }
+        if (pending) {
+            addLine(seen, probe, line, len);
+        }
+        return seen.getSize();
+    }
+
+    /* record line[0..len-1] in seen, copying its bytes only if it is new */
+    private static void addLine(HashTable<ByteLine, Boolean> seen, ByteLine probe,
+            byte[] line, int len) {
+        probe.set(line, 0, len);
+        if (!seen.containsKey(probe)) {
+            seen.put(probe.copy(), Boolean.TRUE);
+        }
+    }
 }
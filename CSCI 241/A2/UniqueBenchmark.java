@@ -0,0 +1,72 @@
+package avl;
+
+// Author: Ben Fry-Holman
+//Date: 7/18/2024
+//Purpose: Timing the unique-line methods of Unique
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.Scanner;
+
+/** Times the naive, avl and hash modes of Unique against generated inputs of
+ * several sizes and duplicate ratios. Usage:
+ *   java avl.UniqueBenchmark [maxLines]
+ * maxLines defaults to 1000000. The naive mode is quadratic, so it is only run
+ * on inputs of up to NAIVE_LIMIT lines. */
+public class UniqueBenchmark {
+
+    private static final int NAIVE_LIMIT = 20000;
+    private static final double[] DUP_RATIOS = {0.0, 0.5, 0.9, 0.99};
+
+    public static void main(String[] args) throws IOException {
+        int maxLines = 1000000;
+        if (args.length > 0) {
+            maxLines = Integer.parseInt(args[0]);
+        }
+        Random random = new Random(241);
+
+        System.out.println("lines\tdups\tunique\tnaive(ms)\tavl(ms)\thash(ms)");
+        for (int n = 1000; n <= maxLines; n *= 10) {
+            for (double ratio : DUP_RATIOS) {
+                byte[] input = generate(n, ratio, random);
+
+                long naive = -1;
+                if (n <= NAIVE_LIMIT) {
+                    long t = System.nanoTime();
+                    Unique.naiveUnique(new Scanner(new ByteArrayInputStream(input)));
+                    naive = (System.nanoTime() - t) / 1000000;
+                }
+
+                long t = System.nanoTime();
+                int unique = Unique.avlUnique(new Scanner(new ByteArrayInputStream(input)));
+                long avl = (System.nanoTime() - t) / 1000000;
+
+                t = System.nanoTime();
+                int hashed = Unique.hashUnique(new ByteArrayInputStream(input));
+                long hash = (System.nanoTime() - t) / 1000000;
+
+                if (hashed != unique) {
+                    throw new IllegalStateException("hash found " + hashed
+                            + " unique lines but avl found " + unique);
+                }
+                System.out.println(n + "\t" + ratio + "\t" + unique + "\t"
+                        + (naive < 0 ? "-" : Long.toString(naive)) + "\t\t"
+                        + avl + "\t" + hash);
+            }
+        }
+    }
+
+    /* Return n newline-terminated lines in which roughly dupRatio of the lines
+     * repeat an earlier line. */
+    private static byte[] generate(int n, double dupRatio, Random random) {
+        int distinct = Math.max(1, (int) Math.round(n * (1 - dupRatio)));
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            int k = i < distinct ? i : random.nextInt(distinct);
+            sb.append("line-").append(Integer.toHexString(k * 0x9E3779B1)).append('\n');
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
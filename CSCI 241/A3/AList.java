@@ -4,7 +4,7 @@ package heap;
 //11/18/2024
 //Array List lab
 
-import java.lang.reflect.Array;
+import java.util.Arrays;
 import java.util.NoSuchElementException;
 
 /** An ArrayList-like dynamic array class that allocates
@@ -39,20 +39,24 @@ public class AList<T> {
   * and copying the old array's contents into the new one. This does *not*
   * change the AList's size. */
   protected void growIfNeeded(int newSize) {
-    while (newSize > a.length){
-      T[] temp = createArray(a.length * 2);
-      for (int i = 0; i < a.length; i++) {
-        temp[i] = a[i];
+    if (newSize > a.length) {
+      int cap = Math.max(a.length, 1);
+      while (newSize > cap) {
+        cap *= 2;
       }
-      a = temp;
-    } 
+      a = Arrays.copyOf(a, cap);
+    }
   }
 
   /** Resizes the AList.
   *  this *does* modify the size, and may modify the capacity if newsize
-  *  exceeds capacity. */
+  *  exceeds capacity. Slots cut off by shrinking are cleared so the list
+  *  no longer keeps their objects reachable. */
   public void resize(int newsize) {
     growIfNeeded(newsize);
+    if (newsize < size) {
+      Arrays.fill(a, newsize, size, null);
+    }
     size = newsize;
   }
 
@@ -90,6 +94,7 @@ public class AList<T> {
       throw new NoSuchElementException();
     }
     T value = a[size - 1];
+    a[size - 1] = null; // let the popped object be garbage collected
     size--;
     return value;
   }
@@ -0,0 +1,275 @@
+package heap;
+
+/*
+ * Author: Ben Fry-Holman
+ * Date: 7/25/2024
+ * Purpose: Hashes for A3
+ */
+
+import java.util.function.ToLongBiFunction;
+
+/** A HashTable that acts as a bounded cache. Every pair is a LinkedPair,
+ * threaded onto a doubly linked list (through its before and after fields)
+ * in order of last access, eldest first. When an insert pushes the table past its maximum
+ * size or maximum total weight, pairs are evicted from the eldest end in
+ * O(1) each. Optionally, a pair also expires a fixed time after it was last
+ * written; expired pairs are never returned, are dropped when a lookup finds
+ * them, and are trimmed from the eldest end as new pairs arrive.
+ *
+ * get, put and the other HashTable operations keep their meaning; get,
+ * getOrDefault, putIfAbsent and computeIfAbsent count a hit when they find
+ * the key and a miss otherwise. An expired pair stays in the table until
+ * something finds it, so getSize(), entries() and forEach may include
+ * expired mappings; call purgeExpired first to leave them out. */
+public class BoundedHashTable<K,V> extends HashTable<K,V> {
+
+    // expired pairs trimmed from the eldest end on each insert
+    private static final int EXPIRE_SCAN = 2;
+
+    /** Receives each mapping the table drops on its own, either because the
+     * table was over its bounds or because the mapping expired. */
+    public interface EvictionListener<K,V> {
+        void evicted(K key, V value, boolean expired);
+    }
+
+    /** A pair on the recency list. It is a TreeNode so that treeifying its
+     * chain can keep it in place rather than copying it and its links. */
+    protected class LinkedPair extends TreeNode {
+        protected LinkedPair before; // next older pair, or null if eldest
+        protected LinkedPair after; // next younger pair, or null if youngest
+        protected long stamp; // time of the last write
+
+        /** constructor: sets the key's mixed hash, key and value */
+        protected LinkedPair(int h, K k, V v) {
+            super(h, k, v);
+        }
+    }
+
+    protected LinkedPair eldest; // least recently used pair, or null if empty
+    protected LinkedPair youngest; // most recently used pair, or null if empty
+
+    private final int maxSize; // evict when size exceeds this
+    private long maxWeight = Long.MAX_VALUE; // evict when weight exceeds this
+    private ToLongBiFunction<? super K, ? super V> weigher; // null: weight 0
+    private long weight; // total weight of all pairs
+    private long timeToLive; // nanoseconds a write stays valid; 0: forever
+    private EvictionListener<? super K, ? super V> listener;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    /** constructor: a cache holding at most maxSize mappings */
+    public BoundedHashTable(int maxSize) {
+        super(16);
+        if (maxSize <= 0) throw new IllegalArgumentException("Maximum size must be positive.");
+        this.maxSize = maxSize;
+    }
+
+    /** Also bound the total weight of the cached mappings, as measured by
+     * weigher, to maxWeight. A mapping's weight must not change while it is
+     * in the table except through put or the other write operations. */
+    public void setMaxWeight(long maxWeight, ToLongBiFunction<? super K, ? super V> weigher) {
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        weight = 0;
+        for (LinkedPair p = eldest; p != null; p = p.after) {
+            weight += weigh(p);
+        }
+        evictIfNeeded();
+    }
+
+    /** Make each mapping expire timeToLive nanoseconds after it was last
+     * written; 0 disables expiry. */
+    public void setTimeToLive(long timeToLive) {
+        if (timeToLive < 0) throw new IllegalArgumentException("Time to live cannot be negative.");
+        this.timeToLive = timeToLive;
+        // existing mappings start their time to live now
+        long time = now();
+        for (LinkedPair p = eldest; p != null; p = p.after) {
+            p.stamp = time;
+        }
+    }
+
+    /** Call listener for every mapping that is evicted or expires */
+    public void setEvictionListener(EvictionListener<? super K, ? super V> listener) {
+        this.listener = listener;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getWeight() {
+        return weight;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getExpirations() {
+        return expirations;
+    }
+
+    /** Remove every expired mapping. Runtime: O(size) */
+    public void purgeExpired() {
+        if (timeToLive == 0) {
+            return;
+        }
+        LinkedPair p = eldest;
+        while (p != null) {
+            LinkedPair next = p.after;
+            if (isExpired(p)) {
+                expire(p);
+            }
+            p = next;
+        }
+    }
+
+    /** Remove every expired mapping, counting and reporting each, then
+     * return a FrozenHashTable of the rest. Runtime: expected O(size) */
+    @Override
+    public FrozenHashTable<K,V> freeze() {
+        purgeExpired();
+        return super.freeze();
+    }
+
+    @Override
+    protected Pair newPair(int h, K key, V val) {
+        return new LinkedPair(h, key, val);
+    }
+
+    @Override
+    protected TreeNode newTreeNode(int h, K key, V val) {
+        return new LinkedPair(h, key, val);
+    }
+
+    @Override
+    protected void afterAccess(Pair node) {
+        hits++;
+        moveToYoungest((LinkedPair) node);
+    }
+
+    @Override
+    protected void afterMiss(K key) {
+        misses++;
+    }
+
+    @Override
+    protected void afterUpdate(Pair node, V oldValue) {
+        if (weigher != null) {
+            weight += weigher.applyAsLong(node.key, node.value)
+                    - weigher.applyAsLong(node.key, oldValue);
+        }
+        LinkedPair linked = (LinkedPair) node;
+        linked.stamp = now();
+        moveToYoungest(linked);
+        evictIfNeeded();
+    }
+
+    @Override
+    protected void afterInsert(Pair node) {
+        LinkedPair linked = (LinkedPair) node;
+        linked.stamp = now();
+        linked.before = youngest;
+        linked.after = null;
+        if (youngest == null) {
+            eldest = linked;
+        } else {
+            youngest.after = linked;
+        }
+        youngest = linked;
+        weight += weigh(node);
+        for (int i = 0; i < EXPIRE_SCAN && eldest != null && isExpired(eldest); i++) {
+            expire(eldest);
+        }
+        evictIfNeeded();
+    }
+
+    @Override
+    protected void afterRemove(Pair node) {
+        unlink((LinkedPair) node);
+        weight -= weigh(node);
+    }
+
+    /** Return true if node has outlived the time to live */
+    @Override
+    protected boolean isExpired(Pair node) {
+        return timeToLive != 0 && now() - ((LinkedPair) node).stamp >= timeToLive;
+    }
+
+    /** Return the current time in nanoseconds */
+    protected long now() {
+        return timeToLive == 0 ? 0 : System.nanoTime();
+    }
+
+    /* evict eldest pairs until the table is within its size and weight
+     * bounds */
+    private void evictIfNeeded() {
+        while (eldest != null && (size > maxSize || weight > maxWeight)) {
+            LinkedPair victim = eldest;
+            removeMapping(victim.hash, victim.key);
+            evictions++;
+            if (listener != null) {
+                listener.evicted(victim.key, victim.value, false);
+            }
+        }
+    }
+
+    /** Count and report node, which expired and has been removed */
+    @Override
+    protected void afterExpire(Pair node) {
+        expirations++;
+        if (listener != null) {
+            listener.evicted(node.key, node.value, true);
+        }
+    }
+
+    /* remove node, which has expired, and report it */
+    private void expire(LinkedPair node) {
+        removeMapping(node.hash, node.key);
+        afterExpire(node);
+    }
+
+    /* move node to the youngest end of the list */
+    private void moveToYoungest(LinkedPair node) {
+        if (node == youngest) {
+            return;
+        }
+        unlink(node);
+        node.before = youngest;
+        node.after = null;
+        youngest.after = node;
+        youngest = node;
+    }
+
+    /* take node out of the list */
+    private void unlink(LinkedPair node) {
+        if (node.before == null) {
+            eldest = node.after;
+        } else {
+            node.before.after = node.after;
+        }
+        if (node.after == null) {
+            youngest = node.before;
+        } else {
+            node.after.before = node.before;
+        }
+        node.before = null;
+        node.after = null;
+    }
+
+    private long weigh(Pair node) {
+        return weigher == null ? 0 : weigher.applyAsLong(node.key, node.value);
+    }
+}
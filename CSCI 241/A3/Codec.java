@@ -0,0 +1,128 @@
+package heap;
+
+/*
+ * Author: Ben Fry-Holman
+ * Date: 7/25/2024
+ * Purpose: Hashes for A3
+ */
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/** Converts values of type T to and from bytes, for tables such as
+ * OffHeapHashTable that store their contents outside the Java heap. All
+ * offsets are absolute, so no method changes a buffer's position. Equal
+ * values must serialize to equal bytes. */
+public interface Codec<T> {
+
+    /** Return the number of bytes write will use for value */
+    int size(T value);
+
+    /** Write value into buf starting at offset.
+     * Precondition: buf has size(value) bytes of room at offset */
+    void write(T value, ByteBuffer buf, int offset);
+
+    /** Read a value from the length bytes of buf starting at offset */
+    T read(ByteBuffer buf, int offset, int length);
+
+    /** Strings as UTF-8; unpaired surrogates are written as '?' */
+    Codec<String> STRING = new Codec<String>() {
+        public int size(String s) {
+            int n = 0;
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c < 0x80) {
+                    n += 1;
+                } else if (c < 0x800) {
+                    n += 2;
+                } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                        && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    n += 4;
+                    i++;
+                } else if (Character.isSurrogate(c)) {
+                    n += 1;
+                } else {
+                    n += 3;
+                }
+            }
+            return n;
+        }
+
+        public void write(String s, ByteBuffer buf, int offset) {
+            int p = offset;
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c < 0x80) {
+                    buf.put(p++, (byte) c);
+                } else if (c < 0x800) {
+                    buf.put(p++, (byte) (0xC0 | (c >> 6)));
+                    buf.put(p++, (byte) (0x80 | (c & 0x3F)));
+                } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                        && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, s.charAt(++i));
+                    buf.put(p++, (byte) (0xF0 | (cp >> 18)));
+                    buf.put(p++, (byte) (0x80 | ((cp >> 12) & 0x3F)));
+                    buf.put(p++, (byte) (0x80 | ((cp >> 6) & 0x3F)));
+                    buf.put(p++, (byte) (0x80 | (cp & 0x3F)));
+                } else if (Character.isSurrogate(c)) {
+                    buf.put(p++, (byte) '?');
+                } else {
+                    buf.put(p++, (byte) (0xE0 | (c >> 12)));
+                    buf.put(p++, (byte) (0x80 | ((c >> 6) & 0x3F)));
+                    buf.put(p++, (byte) (0x80 | (c & 0x3F)));
+                }
+            }
+        }
+
+        public String read(ByteBuffer buf, int offset, int length) {
+            byte[] bytes = new byte[length];
+            buf.get(offset, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    /** Integers as 4 big-endian bytes */
+    Codec<Integer> INTEGER = new Codec<Integer>() {
+        public int size(Integer value) {
+            return 4;
+        }
+
+        public void write(Integer value, ByteBuffer buf, int offset) {
+            buf.putInt(offset, value);
+        }
+
+        public Integer read(ByteBuffer buf, int offset, int length) {
+            return buf.getInt(offset);
+        }
+    };
+
+    /** Longs as 8 big-endian bytes */
+    Codec<Long> LONG = new Codec<Long>() {
+        public int size(Long value) {
+            return 8;
+        }
+
+        public void write(Long value, ByteBuffer buf, int offset) {
+            buf.putLong(offset, value);
+        }
+
+        public Long read(ByteBuffer buf, int offset, int length) {
+            return buf.getLong(offset);
+        }
+    };
+
+    /** Doubles as their 8-byte IEEE 754 bit pattern */
+    Codec<Double> DOUBLE = new Codec<Double>() {
+        public int size(Double value) {
+            return 8;
+        }
+
+        public void write(Double value, ByteBuffer buf, int offset) {
+            buf.putDouble(offset, value);
+        }
+
+        public Double read(ByteBuffer buf, int offset, int length) {
+            return buf.getDouble(offset);
+        }
+    };
+}
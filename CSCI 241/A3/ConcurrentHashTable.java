@@ -0,0 +1,420 @@
+package heap;
+
+/*
+ * Author: Ben Fry-Holman
+ * Date: 7/25/2024
+ * Purpose: Hashes for A3
+ */
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+
+/** A chained hash table like HashTable that can be shared between threads.
+ *
+ * Reads take no locks: buckets are read with volatile semantics through a
+ * VarHandle and chain links and values are volatile, so a reader always sees
+ * a consistent chain. Writes lock one of a fixed set of stripes; the stripe
+ * of bucket i is i mod the number of stripes. Because the table length is a
+ * power of two no smaller than the stripe count, every key in a bucket, and
+ * every key the bucket splits into after a resize, is guarded by the same
+ * stripe.
+ *
+ * Resizing is cooperative. Summing the size counter walks all of its
+ * contended cells, so, as in java.util.concurrent.ConcurrentHashMap, only an
+ * insert into a chain of RESIZE_CHECK_CHAIN or more nodes checks the load
+ * factor; such chains become common as the load nears 0.75, so the check
+ * lags the threshold by only a few inserts. Once the load is found over
+ * 0.75, that thread allocates a table twice the size, and the old buckets are then handed out
+ * in chunks of TRANSFER_STRIDE to any thread that arrives, including writers
+ * that find their bucket already moved. Each moved bucket is copied into the
+ * new table and replaced by a Forward node pointing at it, so readers that
+ * reach a moved bucket simply continue their lookup in the new table. */
+public class ConcurrentHashTable<K,V> {
+
+    private static final double MAX_LOAD = 0.75;
+    private static final int TRANSFER_STRIDE = 16;
+    // an insert into a chain at least this long checks whether to resize
+    private static final int RESIZE_CHECK_CHAIN = 2;
+
+    private static final VarHandle BUCKET =
+            MethodHandles.arrayElementVarHandle(Node[].class);
+
+    /** A chain node. key and hash never change; value and next are volatile
+     * so that lock-free readers observe updates and unlinks safely. */
+    static class Node<K,V> {
+        final int hash;
+        final K key;
+        volatile V value;
+        volatile Node<K,V> next;
+
+        Node(int hash, K key, V value, Node<K,V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+
+        public String toString() {
+            return "(" + key + ", " + value + ")";
+        }
+    }
+
+    /** Placed in a bucket of the old table once its chain has been copied
+     * into the new table. */
+    static final class Forward<K,V> extends Node<K,V> {
+        final Node<K,V>[] nextTable;
+
+        Forward(Node<K,V>[] nextTable) {
+            super(-1, null, null, null);
+            this.nextTable = nextTable;
+        }
+    }
+
+    /** The state of one resize: the table being copied, its replacement,
+     * the next bucket index to hand out and how many buckets are done. */
+    private static final class Resize<K,V> {
+        final Node<K,V>[] from;
+        final Node<K,V>[] to;
+        final AtomicInteger claimed = new AtomicInteger();
+        final AtomicInteger finished = new AtomicInteger();
+
+        Resize(Node<K,V>[] from, Node<K,V>[] to) {
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    private volatile Node<K,V>[] table; // the current bucket array
+    private final ReentrantLock[] locks; // write locks, one per stripe
+    private final LongAdder count = new LongAdder(); // number of mappings
+    private final AtomicReference<Resize<K,V>> resize =
+            new AtomicReference<Resize<K,V>>(); // resize in progress, if any
+
+    /** constructor: initialize with default capacity 64 and 16 stripes */
+    public ConcurrentHashTable() {
+        this(64, 16);
+    }
+
+    /** constructor: initialize with room for at least the given capacity and
+     * at least the given number of lock stripes. Both are rounded up to
+     * powers of two, and the capacity is raised to the stripe count if it is
+     * smaller. */
+    public ConcurrentHashTable(int capacity, int stripes) {
+        int s = 1;
+        while (s < stripes) {
+            s *= 2;
+        }
+        int cap = s;
+        while (cap < capacity) {
+            cap *= 2;
+        }
+        locks = new ReentrantLock[s];
+        for (int i = 0; i < s; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        table = createTable(cap);
+    }
+
+    /** Return the size of the map (the number of key-value mappings in the
+     * table). The result is exact only when no writes are in progress. */
+    public int getSize() {
+        return (int) count.sum();
+    }
+
+    /** Return the current capacity of the table (the length of the current
+     * bucket array) */
+    public int getCapacity() {
+        return table.length;
+    }
+
+    /** Return the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key. Never blocks. */
+    public V get(K key) {
+        Node<K,V> node = findNode(key);
+        return node == null ? null : node.value;
+    }
+
+    /** Return true if this map contains a mapping for the specified key.
+     * Never blocks. */
+    public boolean containsKey(K key) {
+        return findNode(key) != null;
+    }
+
+    /** Associate the specified value with the specified key in this map,
+     * replacing any previous value. Return the previous value associated with
+     * key, or null if there was no mapping for key.
+     * Precondition: val is not null. */
+    public V put(K key, V val) {
+        if (val == null) throw new IllegalArgumentException("Value cannot be null.");
+        return putValue(key, val, false);
+    }
+
+    /** Atomically associate val with key only if key has no mapping. Return
+     * the existing value if there was one (leaving it unchanged), or null if
+     * val was inserted.
+     * Precondition: val is not null. */
+    public V putIfAbsent(K key, V val) {
+        if (val == null) throw new IllegalArgumentException("Value cannot be null.");
+        return putValue(key, val, true);
+    }
+
+    /** Atomically replace the mapping for key with the result of applying
+     * remapping to key and its current value (null if there is none). If the
+     * result is null, the mapping is removed. Return the new value, or null
+     * if there is none. remapping runs while the key's stripe is locked, so
+     * it should be short and must not modify this table. */
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remapping) {
+        int h = spread(key.hashCode());
+        Node<K,V>[] tab = table;
+        V newValue = null;
+        int chain = 0; // nodes in the chain a new node was added to
+        while (true) {
+            int i = h & (tab.length - 1);
+            ReentrantLock lock = locks[i & (locks.length - 1)];
+            lock.lock();
+            Node<K,V>[] forwardTo = null;
+            try {
+                Node<K,V> head = bucketAt(tab, i);
+                if (head instanceof Forward) {
+                    forwardTo = ((Forward<K,V>) head).nextTable;
+                } else {
+                    Node<K,V> prev = null;
+                    Node<K,V> node = head;
+                    chain = 0;
+                    while (node != null && !(node.hash == h && node.key.equals(key))) {
+                        prev = node;
+                        node = node.next;
+                        chain++;
+                    }
+                    newValue = remapping.apply(key, node == null ? null : node.value);
+                    if (node != null) {
+                        if (newValue != null) {
+                            node.value = newValue;
+                        } else {
+                            unlink(tab, i, prev, node);
+                        }
+                        return newValue;
+                    }
+                    if (newValue != null) {
+                        setBucket(tab, i, new Node<K,V>(h, key, newValue, head));
+                        count.increment();
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (forwardTo == null) {
+                break;
+            }
+            helpResize();
+            tab = forwardTo;
+        }
+        if (newValue != null) {
+            growIfNeeded(chain);
+        } else {
+            helpResize();
+        }
+        return newValue;
+    }
+
+    /** Remove the mapping for the specified key from this map if present.
+     *  Return the previous value associated with key, or null if there was no
+     *  mapping for key. */
+    public V remove(K key) {
+        int h = spread(key.hashCode());
+        Node<K,V>[] tab = table;
+        while (true) {
+            int i = h & (tab.length - 1);
+            ReentrantLock lock = locks[i & (locks.length - 1)];
+            lock.lock();
+            Node<K,V>[] forwardTo = null;
+            try {
+                Node<K,V> head = bucketAt(tab, i);
+                if (head instanceof Forward) {
+                    forwardTo = ((Forward<K,V>) head).nextTable;
+                } else {
+                    Node<K,V> prev = null;
+                    for (Node<K,V> node = head; node != null; node = node.next) {
+                        if (node.hash == h && node.key.equals(key)) {
+                            unlink(tab, i, prev, node);
+                            return node.value;
+                        }
+                        prev = node;
+                    }
+                    return null;
+                }
+            } finally {
+                lock.unlock();
+            }
+            helpResize();
+            tab = forwardTo;
+        }
+    }
+
+    /* shared body of put and putIfAbsent */
+    private V putValue(K key, V val, boolean onlyIfAbsent) {
+        int h = spread(key.hashCode());
+        Node<K,V>[] tab = table;
+        int chain = 0; // nodes in the chain the new node was added to
+        while (true) {
+            int i = h & (tab.length - 1);
+            ReentrantLock lock = locks[i & (locks.length - 1)];
+            lock.lock();
+            Node<K,V>[] forwardTo = null;
+            try {
+                Node<K,V> head = bucketAt(tab, i);
+                if (head instanceof Forward) {
+                    forwardTo = ((Forward<K,V>) head).nextTable;
+                } else {
+                    chain = 0;
+                    for (Node<K,V> node = head; node != null; node = node.next, chain++) {
+                        if (node.hash == h && node.key.equals(key)) {
+                            V oldValue = node.value;
+                            if (!onlyIfAbsent) {
+                                node.value = val;
+                            }
+                            return oldValue;
+                        }
+                    }
+                    setBucket(tab, i, new Node<K,V>(h, key, val, head));
+                    count.increment();
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (forwardTo == null) {
+                break;
+            }
+            helpResize();
+            tab = forwardTo;
+        }
+        growIfNeeded(chain);
+        return null;
+    }
+
+    /* lock-free lookup: follow Forward nodes into newer tables as needed */
+    private Node<K,V> findNode(K key) {
+        int h = spread(key.hashCode());
+        Node<K,V>[] tab = table;
+        Node<K,V> node = bucketAt(tab, h & (tab.length - 1));
+        while (node != null) {
+            if (node instanceof Forward) {
+                tab = ((Forward<K,V>) node).nextTable;
+                node = bucketAt(tab, h & (tab.length - 1));
+            } else if (node.hash == h && node.key.equals(key)) {
+                return node;
+            } else {
+                node = node.next;
+            }
+        }
+        return null;
+    }
+
+    /* unlink node from the chain in tab[i]; prev is its predecessor or null.
+     * Precondition: the caller holds bucket i's stripe lock. */
+    private void unlink(Node<K,V>[] tab, int i, Node<K,V> prev, Node<K,V> node) {
+        if (prev == null) {
+            setBucket(tab, i, node.next);
+        } else {
+            prev.next = node.next;
+        }
+        count.decrement();
+    }
+
+    /* after adding a node to a chain that held chain nodes, start a resize if
+     * the chain is long enough to be worth summing the count, the load factor
+     * exceeds MAX_LOAD and none is running, then help with whatever resize is
+     * in progress */
+    private void growIfNeeded(int chain) {
+        Node<K,V>[] tab = table;
+        if (chain >= RESIZE_CHECK_CHAIN && resize.get() == null
+                && count.sum() > tab.length * MAX_LOAD) {
+            resize.compareAndSet(null, new Resize<K,V>(tab, createTable(tab.length * 2)));
+        }
+        helpResize();
+    }
+
+    /* claim and move chunks of buckets until the current resize has no
+     * unclaimed buckets left; the thread that moves the last bucket installs
+     * the new table */
+    private void helpResize() {
+        Resize<K,V> r = resize.get();
+        if (r == null) {
+            return;
+        }
+        if (r.from != table) {
+            // started from a table that another resize already replaced
+            resize.compareAndSet(r, null);
+            return;
+        }
+        int n = r.from.length;
+        while (true) {
+            int start = r.claimed.getAndAdd(TRANSFER_STRIDE);
+            if (start >= n) {
+                return;
+            }
+            int end = Math.min(start + TRANSFER_STRIDE, n);
+            for (int i = start; i < end; i++) {
+                transfer(r, i);
+            }
+            if (r.finished.addAndGet(end - start) == n) {
+                table = r.to;
+                resize.set(null);
+                return;
+            }
+        }
+    }
+
+    /* Copy the chain in r.from[i] into buckets i and i + n of r.to, then
+     * forward r.from[i]. The nodes are copied rather than relinked because
+     * readers may still be walking the old chain. The stripe of bucket i also
+     * guards both destination buckets. */
+    private void transfer(Resize<K,V> r, int i) {
+        int n = r.from.length;
+        ReentrantLock lock = locks[i & (locks.length - 1)];
+        lock.lock();
+        try {
+            Node<K,V> lo = null;
+            Node<K,V> hi = null;
+            for (Node<K,V> node = bucketAt(r.from, i); node != null; node = node.next) {
+                if ((node.hash & n) == 0) {
+                    lo = new Node<K,V>(node.hash, node.key, node.value, lo);
+                } else {
+                    hi = new Node<K,V>(node.hash, node.key, node.value, hi);
+                }
+            }
+            setBucket(r.to, i, lo);
+            setBucket(r.to, i + n, hi);
+            setBucket(r.from, i, new Forward<K,V>(r.to));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /* Return a well-mixed, non-negative hash for a key's hashCode. */
+    private static int spread(int h) {
+        return HashTable.spread(h) & 0x7FFFFFFF;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K,V> Node<K,V> bucketAt(Node<K,V>[] tab, int i) {
+        return (Node<K,V>) BUCKET.getVolatile(tab, i);
+    }
+
+    private static <K,V> void setBucket(Node<K,V>[] tab, int i, Node<K,V> node) {
+        BUCKET.setVolatile(tab, i, node);
+    }
+
+    /*  Create and return a bucket array with the specified size. The casting
+     *  and warning suppression is necessary because generics and arrays don't
+     *  play well together.*/
+    @SuppressWarnings("unchecked")
+    private Node<K,V>[] createTable(int size) {
+        return (Node<K,V>[]) new Node<?,?>[size];
+    }
+}
@@ -0,0 +1,111 @@
+package heap;
+
+/*
+ * Author: Ben Fry-Holman
+ * Date: 7/25/2024
+ * Purpose: Hashes for A3
+ */
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Measures multithreaded throughput of ConcurrentHashTable against a
+ * HashTable guarded by a single global lock. Each thread runs a mix of 90%
+ * gets and 10% puts over a shared key range for a fixed time. Usage:
+ *   java heap.ConcurrentHashTableBenchmark [maxThreads] [keys] [millis]
+ * Defaults: 16 threads, 1000000 keys, 1000 ms per run. */
+public class ConcurrentHashTableBenchmark {
+
+    /** The operations a benchmark run needs from a table */
+    private interface Table {
+        Integer get(Integer key);
+        void put(Integer key, Integer value);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int keys = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+        long millis = args.length > 2 ? Long.parseLong(args[2]) : 1000;
+
+        System.out.println("threads\tsingle-lock(Mops/s)\tconcurrent(Mops/s)");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            HashTable<Integer, Integer> plain = new HashTable<Integer, Integer>();
+            Object lock = new Object();
+            Table locked = new Table() {
+                public Integer get(Integer key) {
+                    synchronized (lock) {
+                        return plain.get(key);
+                    }
+                }
+
+                public void put(Integer key, Integer value) {
+                    synchronized (lock) {
+                        plain.put(key, value);
+                    }
+                }
+            };
+
+            ConcurrentHashTable<Integer, Integer> conc =
+                    new ConcurrentHashTable<Integer, Integer>(64, 4 * threads);
+            Table striped = new Table() {
+                public Integer get(Integer key) {
+                    return conc.get(key);
+                }
+
+                public void put(Integer key, Integer value) {
+                    conc.put(key, value);
+                }
+            };
+
+            double lockedRate = run(locked, threads, keys, millis);
+            double stripedRate = run(striped, threads, keys, millis);
+            System.out.printf("%d\t%.2f\t\t\t%.2f%n", threads, lockedRate, stripedRate);
+        }
+    }
+
+    /* run the mixed workload on table with the given number of threads and
+     * return the combined throughput in millions of operations per second */
+    private static double run(Table table, int threads, int keys, long millis)
+            throws InterruptedException {
+        AtomicBoolean stop = new AtomicBoolean();
+        LongAdder ops = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            long seed = t;
+            workers[t] = new Thread(() -> {
+                Random random = new Random(seed);
+                long done = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (!stop.get()) {
+                    for (int i = 0; i < 1000; i++) {
+                        Integer key = random.nextInt(keys);
+                        if (random.nextInt(10) == 0) {
+                            table.put(key, i);
+                        } else {
+                            table.get(key);
+                        }
+                    }
+                    done += 1000;
+                }
+                ops.add(done);
+            });
+            workers[t].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        Thread.sleep(millis);
+        stop.set(true);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        return ops.sum() / seconds / 1e6;
+    }
+}
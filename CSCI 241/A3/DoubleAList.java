@@ -0,0 +1,170 @@
+package heap;
+
+//Ben Fry-Holman
+//11/18/2024
+//Array List lab
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/** An AList of doubles stored in a double[], so elements are never boxed.
+* Besides the AList operations it has bulk appends, explicit capacity
+* control, unchecked accessors for hot loops that have already checked their
+* indexes, and a growth factor chosen at construction. */
+public class DoubleAList {
+
+  /** the growth factor used when none is given */
+  public static final double DEFAULT_GROWTH = 2.0;
+
+  protected int size; // number of elements in the DoubleAList
+  protected double[] a; // the backing array storage
+  protected final double growth; // capacity multiplier when a is full
+
+  public int size() {
+    return size;
+  }
+
+  protected int getCap() {
+    return a.length;
+  }
+
+  /** Creates a DoubleAList with a default capacity of 8 */
+  public DoubleAList() {
+    this(8);
+  }
+
+  /** Creates a DoubleAList with the given capacity */
+  public DoubleAList(int capacity) {
+    this(capacity, DEFAULT_GROWTH);
+  }
+
+  /** Creates a DoubleAList with the given capacity that multiplies its
+  * capacity by growth whenever it fills up.
+  * @throws IllegalArgumentException if capacity < 0 or growth <= 1 */
+  public DoubleAList(int capacity, double growth) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Capacity cannot be negative.");
+    }
+    if (!(growth > 1)) {
+      throw new IllegalArgumentException("Growth factor must exceed 1.");
+    }
+    a = new double[capacity];
+    size = 0;
+    this.growth = growth;
+  }
+
+  /* Grows a by the growth factor (or more, if that is not enough) if newSize
+  * exceeds a's capacity. Does nothing if newSize <= a.length. This does
+  * *not* change the DoubleAList's size. */
+  protected void growIfNeeded(int newSize) {
+    if (newSize > a.length) {
+      long grown = (long) (a.length * growth) + 1;
+      int cap = (int) Math.min(Math.max(grown, newSize), Integer.MAX_VALUE - 8);
+      a = Arrays.copyOf(a, cap);
+    }
+  }
+
+  /** Makes the capacity at least minCapacity, so that the list can hold that
+  * many elements without growing again. Does not change the size. */
+  public void ensureCapacity(int minCapacity) {
+    if (minCapacity > a.length) {
+      a = Arrays.copyOf(a, minCapacity);
+    }
+  }
+
+  /** Shrinks the capacity to the current size, releasing unused storage */
+  public void trimToSize() {
+    if (size < a.length) {
+      a = Arrays.copyOf(a, size);
+    }
+  }
+
+  /** Resizes the DoubleAList.
+  *  this *does* modify the size, and may modify the capacity if newsize
+  *  exceeds capacity. New elements are 0.0. */
+  public void resize(int newsize) {
+    growIfNeeded(newsize);
+    if (newsize > size) {
+      Arrays.fill(a, size, newsize, 0.0);
+    }
+    size = newsize;
+  }
+
+  /** Gets element i from DoubleAList.
+  * @throws ArrayIndexOutOfBoundsException if 0 <= i < size does not hold */
+  public double get(int i) {
+    if (i < 0 || i >= size) {
+      throw new ArrayIndexOutOfBoundsException();
+    }
+    return a[i];
+  }
+
+  /** Gets element i without checking it against size. The caller must
+  * guarantee 0 <= i < size; an index past size returns a stale value. */
+  public double getUnchecked(int i) {
+    return a[i];
+  }
+
+  /** Sets the ith element of the list to value.
+  * @throws ArrayIndexOutOfBoundsException if 0 <= i < size does not hold */
+  public void put(int i, double value) {
+    if (i < 0 || i >= size) {
+      throw new ArrayIndexOutOfBoundsException();
+    }
+    a[i] = value;
+  }
+
+  /** Sets the ith element without checking it against size. The caller must
+  * guarantee 0 <= i < size. */
+  public void putUnchecked(int i, double value) {
+    a[i] = value;
+  }
+
+  /** Appends value at the end of the DoubleAList, increasing size by 1.
+  * Grows the array if needed to fit the appended value */
+  public void append(double value) {
+    if (size == a.length) {
+      growIfNeeded(size + 1);
+    }
+    a[size++] = value;
+  }
+
+  /** Appends every element of values, growing at most once */
+  public void appendAll(double[] values) {
+    addRange(values, 0, values.length);
+  }
+
+  /** Appends every element of other, growing at most once */
+  public void appendAll(DoubleAList other) {
+    addRange(other.a, 0, other.size);
+  }
+
+  /** Appends values[from..to-1], growing at most once.
+  * @throws ArrayIndexOutOfBoundsException if the range is not within values */
+  public void addRange(double[] values, int from, int to) {
+    if (from < 0 || to > values.length || from > to) {
+      throw new ArrayIndexOutOfBoundsException();
+    }
+    int count = to - from;
+    growIfNeeded(size + count);
+    System.arraycopy(values, from, a, size, count);
+    size += count;
+  }
+
+  /** Removes and returns the value at the end of the DoubleAList.
+  *  this *does* modify size and cannot modify capacity.
+  *  @throws NoSuchElementException if size == 0*/
+  public double pop() {
+    if (size == 0) {
+      throw new NoSuchElementException();
+    }
+    size--;
+    return a[size];
+  }
+
+  /** Returns a new array holding the list's elements */
+  public double[] toArray() {
+    return Arrays.copyOf(a, size);
+  }
+
+}
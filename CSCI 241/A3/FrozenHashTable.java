@@ -0,0 +1,284 @@
+package heap;
+
+/*
+ * Author: Ben Fry-Holman
+ * Date: 7/25/2024
+ * Purpose: Hashes for A3
+ */
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/** An immutable snapshot of a HashTable, made by HashTable.freeze(), for
+ * tables that are built once and then only read.
+ *
+ * The keys are placed with a minimal perfect hash in the style of PTHash:
+ * one multiply turns a key's mixed hash into 64 bits, whose high half picks
+ * one of about size/4 buckets and whose low half, xored with that bucket's
+ * pilot and multiplied once more, picks one of about 1.03 * size slots.
+ * Each bucket's pilot is chosen so that its keys land in distinct free
+ * slots; buckets are placed largest first, and a bucket with a single key
+ * gets a pilot aimed straight at a free slot. The few spare slots keep the
+ * pilot search short for the last buckets placed. Keys and values sit side by side in
+ * one flat array, beside a parallel array of their mixed hashes, so a lookup
+ * reads one pilot and one slot, and makes one equals call only if the slot's
+ * hash matches; a missing key is nearly always rejected without touching the
+ * stored key.
+ *
+ * A perfect hash can only separate keys whose hash codes differ. Of the keys
+ * that share a hash code, one gets the slot and the rest are kept in a small
+ * overflow HashTable, which a lookup consults only when the slot's hash
+ * matches but its key does not. */
+public class FrozenHashTable<K,V> {
+
+    private static final int KEYS_PER_BUCKET = 3;
+    private static final int SPARE_SLOTS = 32; // one spare slot per this many keys
+    private static final int MAX_PILOTS = 1 << 20; // pilots tried per bucket
+    // odd 64-bit multiplier (2^64 divided by the golden ratio)
+    private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+    // odd multiplier that spreads a pilot's effect over a slot's high bits,
+    // and its inverse modulo 2^32
+    private static final int SLOT_MULTIPLIER = 0xC2B2AE35;
+    private static final int SLOT_INVERSE;
+
+    static {
+        int inverse = SLOT_MULTIPLIER; // correct to 3 bits; each step doubles that
+        for (int i = 0; i < 4; i++) {
+            inverse *= 2 - SLOT_MULTIPLIER * inverse;
+        }
+        SLOT_INVERSE = inverse;
+    }
+
+    private final HashStrategy<? super K> strategy; // hashes and compares keys
+    private final Object[] table; // slot i: key at table[2i], value at table[2i+1]
+    private final int slots; // number of slots, table.length / 2; some are empty
+    private final int[] pilots; // per bucket, xored in to choose the slot
+    private final int salt; // chooses the bucket of each hash
+    private final int[] hashes; // hashes[i] is the mixed hash of slot i's key, if any
+    private final HashTable<K,V> overflow; // keys with shared hash codes, or null
+    private final int size; // how many items are in the map
+
+    /* build the perfect hash over n pairs whose mixed hashes (as computed by
+     * HashTable.spread) are given; the arrays are not kept */
+    FrozenHashTable(HashStrategy<? super K> strategy, Object[] pairKeys, Object[] pairValues,
+            int[] pairHashes, int n) {
+        this.strategy = strategy;
+        this.size = n;
+
+        // sort the pairs by hash, so that pairs sharing one are adjacent
+        long[] byHash = new long[n];
+        for (int i = 0; i < n; i++) {
+            byHash[i] = (long) pairHashes[i] << 32 | i;
+        }
+        Arrays.sort(byHash);
+        int[] members = new int[n]; // pairs that get slots
+        HashTable<K,V> extra = null;
+        int m = 0;
+        for (int i = 0; i < n; i++) {
+            int pair = (int) byHash[i];
+            if (i > 0 && byHash[i] >>> 32 == byHash[i - 1] >>> 32) {
+                if (extra == null) {
+                    extra = new HashTable<K,V>(16, false, strategy);
+                }
+                @SuppressWarnings("unchecked")
+                K k = (K) pairKeys[pair];
+                @SuppressWarnings("unchecked")
+                V v = (V) pairValues[pair];
+                extra.put(k, v);
+            } else {
+                members[m++] = pair;
+            }
+        }
+        overflow = extra;
+
+        slots = m == 0 ? 0 : m + m / SPARE_SLOTS;
+        table = new Object[2 * slots];
+        hashes = new int[slots];
+        pilots = new int[Math.max(1, (m + KEYS_PER_BUCKET - 1) / KEYS_PER_BUCKET)];
+        int s = 0;
+        while (!place(pairKeys, pairValues, pairHashes, members, m, s)) {
+            s += 0x61C88647; // a bucket found no pilot; rebucket
+        }
+        salt = s;
+    }
+
+    /** Return the size of the map (the number of key-value mappings) */
+    public int getSize() {
+        return size;
+    }
+
+    /** Return the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key.
+     * Runtime: O(1) */
+    public V get(K key) {
+        return getOrDefault(key, null);
+    }
+
+    /** Return the value to which key is mapped, or defaultValue if there is
+     * no mapping for key.
+     * Runtime: O(1) */
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(K key, V defaultValue) {
+        if (slots == 0) {
+            return overflow == null ? defaultValue : overflow.getOrDefault(key, defaultValue);
+        }
+        int h = HashTable.spread(strategy.hashCode(key));
+        int slot = slot(h);
+        // a different hash settles a miss without touching the slot's key
+        if (hashes[slot] != h) {
+            return defaultValue;
+        }
+        Object k = table[2 * slot];
+        if (k != null && (k == key || strategy.equals((K) k, key))) {
+            return (V) table[2 * slot + 1];
+        }
+        return overflow == null ? defaultValue : overflow.getOrDefault(key, defaultValue);
+    }
+
+    /** Return true if this map contains a mapping for the specified key.
+     * Runtime: O(1) */
+    public boolean containsKey(K key) {
+        // values are never null, so a missing key is the only way to get null
+        return get(key) != null;
+    }
+
+    /** Call action on each key and value in the table */
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < table.length; i += 2) {
+            if (table[i] != null) {
+                action.accept((K) table[i], (V) table[i + 1]);
+            }
+        }
+        if (overflow != null) {
+            overflow.forEach(action);
+        }
+    }
+
+    /* the slot of mixed hash h */
+    private int slot(int h) {
+        long x = (h ^ salt) * MULTIPLIER;
+        int bucket = reduce((int) (x >>> 32), pilots.length);
+        return reduce(((int) x ^ pilots[bucket]) * SLOT_MULTIPLIER, slots);
+    }
+
+    /* Try to place the m member pairs using bucket salt s, filling table and
+     * pilots. Return false if some bucket found no pilot. */
+    private boolean place(Object[] pairKeys, Object[] pairValues, int[] pairHashes,
+            int[] members, int m, int s) {
+        int bucketCount = pilots.length;
+        // the low half of each member's hash, grouped by bucket with a
+        // counting sort; equal hashes were removed, so no two are equal
+        int[] start = new int[bucketCount + 1];
+        int[] bucketOf = new int[m];
+        int[] low = new int[m];
+        for (int j = 0; j < m; j++) {
+            long x = (pairHashes[members[j]] ^ s) * MULTIPLIER;
+            bucketOf[j] = reduce((int) (x >>> 32), bucketCount);
+            low[j] = (int) x;
+            start[bucketOf[j] + 1]++;
+        }
+        int largest = 0;
+        for (int b = 0; b < bucketCount; b++) {
+            largest = Math.max(largest, start[b + 1]);
+            start[b + 1] += start[b];
+        }
+        int[] grouped = new int[m]; // member numbers, by bucket
+        int[] fill = Arrays.copyOf(start, bucketCount);
+        for (int j = 0; j < m; j++) {
+            grouped[fill[bucketOf[j]]++] = j;
+        }
+
+        // order buckets by size, largest first, again by counting sort
+        int[] bySize = new int[largest + 2];
+        for (int b = 0; b < bucketCount; b++) {
+            bySize[largest - (start[b + 1] - start[b]) + 1]++;
+        }
+        for (int i = 1; i < bySize.length; i++) {
+            bySize[i] += bySize[i - 1];
+        }
+        int[] order = new int[bucketCount];
+        for (int b = 0; b < bucketCount; b++) {
+            order[bySize[largest - (start[b + 1] - start[b])]++] = b;
+        }
+
+        Arrays.fill(table, null);
+        Arrays.fill(hashes, 0);
+        Arrays.fill(pilots, 0);
+        long[] taken = new long[(slots + 63) >>> 6]; // bit i set if slot i is used
+        int[] bucketLow = new int[largest];
+        int[] chosen = new int[largest];
+        int nextFree = 0; // every slot below nextFree is taken
+        for (int b : order) {
+            int from = start[b];
+            int count = start[b + 1] - from;
+            if (count == 0) {
+                break;
+            }
+            for (int j = 0; j < count; j++) {
+                bucketLow[j] = low[grouped[from + j]];
+            }
+            if (count == 1) {
+                // aim the pilot at the first free slot
+                while (isTaken(taken, nextFree)) {
+                    nextFree++;
+                }
+                int target = (int) ((((long) nextFree << 32) + slots - 1) / slots);
+                pilots[b] = bucketLow[0] ^ target * SLOT_INVERSE;
+                chosen[0] = nextFree;
+            } else {
+                int pilot = findPilot(bucketLow, count, taken, slots, chosen);
+                if (pilot == 0) {
+                    return false;
+                }
+                pilots[b] = pilot;
+            }
+            for (int j = 0; j < count; j++) {
+                int pair = members[grouped[from + j]];
+                taken[chosen[j] >>> 6] |= 1L << chosen[j];
+                table[2 * chosen[j]] = pairKeys[pair];
+                table[2 * chosen[j] + 1] = pairValues[pair];
+                hashes[chosen[j]] = pairHashes[pair];
+            }
+        }
+        return true;
+    }
+
+    /* Return a nonzero pilot that sends the count hashes low[0..count-1] to
+     * distinct free slots among m, which are left in chosen, or 0 if none was
+     * found */
+    private static int findPilot(int[] low, int count, long[] taken, int m, int[] chosen) {
+        for (int p = 1; p < MAX_PILOTS; p++) {
+            int pilot = HashTable.spread(p * 0x9E3779B9) | 1;
+            int j = 0;
+            while (j < count) {
+                int slot = reduce((low[j] ^ pilot) * SLOT_MULTIPLIER, m);
+                if (isTaken(taken, slot)) {
+                    break;
+                }
+                int k = 0;
+                while (k < j && chosen[k] != slot) {
+                    k++;
+                }
+                if (k < j) {
+                    break;
+                }
+                chosen[j++] = slot;
+            }
+            if (j == count) {
+                return pilot;
+            }
+        }
+        return 0;
+    }
+
+    /* true if bit slot of the bit set taken is set */
+    private static boolean isTaken(long[] taken, int slot) {
+        return (taken[slot >>> 6] & 1L << slot) != 0;
+    }
+
+    /* map h uniformly onto [0, n) with a multiply instead of a division */
+    private static int reduce(int h, int n) {
+        return (int) (((h & 0xFFFFFFFFL) * n) >>> 32);
+    }
+}
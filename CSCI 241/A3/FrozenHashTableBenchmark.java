@@ -0,0 +1,88 @@
+package heap;
+
+/*
+ * Author: Ben Fry-Holman
+ * Date: 7/25/2024
+ * Purpose: Hashes for A3
+ */
+
+import java.util.Random;
+import java.util.function.Function;
+
+/** Compares lookup speed of a HashTable with that of its frozen snapshot.
+ * The keys are short strings like airport codes. Lookups that hit and
+ * lookups that miss are timed separately, and the best round of each is
+ * reported at the end. Usage:
+ *   java heap.FrozenHashTableBenchmark [keys] [lookups] [rounds]
+ * Defaults: 100000 keys, 10000000 lookups, 5 rounds. */
+public class FrozenHashTableBenchmark {
+
+    public static void main(String[] args) {
+        int keys = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 10000000;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        HashTable<String, Integer> table = new HashTable<String, Integer>();
+        for (int i = 0; i < keys; i++) {
+            table.put(key(i), i);
+        }
+        long start = System.nanoTime();
+        FrozenHashTable<String, Integer> frozen = table.freeze();
+        double freezeMillis = (System.nanoTime() - start) / 1e6;
+        System.out.printf("froze %d keys in %.1f ms%n", keys, freezeMillis);
+
+        // keys past the end are not in the table
+        Random random = new Random(241);
+        String[] hits = new String[1 << 16];
+        String[] misses = new String[hits.length];
+        for (int i = 0; i < hits.length; i++) {
+            hits[i] = key(random.nextInt(keys));
+            misses[i] = key(keys + random.nextInt(keys));
+        }
+
+        System.out.println("round\tHashTable hit/miss(ns/get)\tFrozenHashTable hit/miss(ns/get)");
+        double[] best = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE};
+        long[] sink = new long[1];
+        for (int round = 1; round <= rounds; round++) {
+            double[] times = {
+                time(table::get, hits, lookups, sink),
+                time(table::get, misses, lookups, sink),
+                time(frozen::get, hits, lookups, sink),
+                time(frozen::get, misses, lookups, sink)
+            };
+            for (int i = 0; i < times.length; i++) {
+                best[i] = Math.min(best[i], times[i]);
+            }
+            System.out.printf("%d\t%.2f/%.2f\t\t\t%.2f/%.2f%n",
+                    round, times[0], times[1], times[2], times[3]);
+        }
+        System.out.printf("best\t%.2f/%.2f\t\t\t%.2f/%.2f%n", best[0], best[1], best[2], best[3]);
+        // print the checksum so the lookups cannot be optimized away
+        System.out.println("checksum " + sink[0]);
+    }
+
+    /* Return the mean ns per call of lookups calls of get on probes, adding
+     * the values found to sink[0]. */
+    private static double time(Function<String, Integer> get, String[] probes, int lookups,
+            long[] sink) {
+        long start = System.nanoTime();
+        long sum = 0;
+        for (int i = 0; i < lookups; i++) {
+            Integer v = get.apply(probes[i & (probes.length - 1)]);
+            sum += v == null ? 0 : v;
+        }
+        double nanos = (double) (System.nanoTime() - start) / lookups;
+        sink[0] += sum;
+        return nanos;
+    }
+
+    /* a distinct short key for each i, in the style of an airport code */
+    private static String key(int i) {
+        StringBuilder sb = new StringBuilder();
+        do {
+            sb.append((char) ('A' + i % 26));
+            i /= 26;
+        } while (i > 0);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,52 @@
+package heap;
+
+/*
+ * Author: Ben Fry-Holman
+ * Date: 7/25/2024
+ * Purpose: Hashes for A3
+ */
+
+/** Decides how a HashTable hashes and compares its keys. The table still
+ * mixes the returned hash before using it, so a strategy only has to make
+ * equal keys hash equally; it does not need to spread its bits well. */
+public interface HashStrategy<K> {
+
+    /** Return a hash code for key; equal keys must return equal codes */
+    int hashCode(K key);
+
+    /** Return true if a and b are the same key */
+    boolean equals(K a, K b);
+
+    /** Return the strategy that uses the keys' own hashCode and equals */
+    @SuppressWarnings("unchecked")
+    static <K> HashStrategy<K> natural() {
+        return (HashStrategy<K>) NATURAL;
+    }
+
+    /** Return a strategy that treats keys as equal only if they are the same
+     * object, like java.util.IdentityHashMap */
+    @SuppressWarnings("unchecked")
+    static <K> HashStrategy<K> identity() {
+        return (HashStrategy<K>) IDENTITY;
+    }
+
+    HashStrategy<Object> NATURAL = new HashStrategy<Object>() {
+        public int hashCode(Object key) {
+            return key.hashCode();
+        }
+
+        public boolean equals(Object a, Object b) {
+            return a.equals(b);
+        }
+    };
+
+    HashStrategy<Object> IDENTITY = new HashStrategy<Object>() {
+        public int hashCode(Object key) {
+            return System.identityHashCode(key);
+        }
+
+        public boolean equals(Object a, Object b) {
+            return a == b;
+        }
+    };
+}
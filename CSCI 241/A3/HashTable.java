@@ -1,5 +1,11 @@
 package heap;
 
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
 /*
  * Author: Ben Fry-Holman
  * Date: 7/25/2024
@@ -8,12 +14,64 @@ package heap;
 
 /** A hash table modeled after java.util.Map. It uses chaining for collision
  * resolution and grows its underlying storage by a factor of 2 when the load
- * factor exceeds 0.8. */
+ * factor exceeds 0.8.
+ *
+ * The number of buckets is always a power of two. Keys are hashed by a
+ * HashStrategy (by default their own hashCode), the result is mixed so that
+ * every bit of it affects the low bits, and the bucket is chosen by masking
+ * instead of an integer division. Each Pair remembers its mixed hash, which
+ * lets lookups skip equals for most non-matching keys and lets resizes move
+ * pairs without hashing the keys again.
+ *
+ * In incremental mode the table does not rehash everything at once when it
+ * grows. Instead it keeps the old bucket array alongside the new one and each
+ * subsequent get, put, containsKey or remove moves at most MIGRATE_STEP old
+ * buckets into the new array, so no single operation pays for the whole
+ * resize. Until the migration finishes, a key may live either in the new
+ * array or in a not-yet-migrated bucket of the old array, and every lookup
+ * checks both.
+ *
+ * A chain that grows to TREEIFY_THRESHOLD pairs (in a table of at least
+ * MIN_TREEIFY_CAPACITY buckets) is replaced by a TreeBin: an AVL tree of its
+ * pairs ordered by hash, then by compareTo when the keys are Comparable. This
+ * bounds lookups among many colliding keys to O(log n) instead of O(n). A
+ * tree that shrinks to UNTREEIFY_THRESHOLD pairs turns back into a chain.
+ *
+ * The compound operations (putIfAbsent, getOrDefault, computeIfAbsent,
+ * compute and merge) hash the key and search its bucket once, so callers
+ * should prefer them to a containsKey followed by get or put. A table that
+ * is finished changing can be frozen into a FrozenHashTable for faster reads.
+ *
+ * Subclasses can track entries through the protected hooks afterAccess,
+ * afterMiss, afterUpdate, afterInsert, afterRemove, afterExpire and
+ * isExpired, which do nothing here, and can keep their own state in each pair
+ * by overriding the newPair and newTreeNode factories; see BoundedHashTable. */
 public class HashTable<K,V> {
 
+    // number of old buckets moved per operation during an incremental resize
+    protected static final int MIGRATE_STEP = 8;
+
+    // a chain this long is converted to a tree
+    protected static final int TREEIFY_THRESHOLD = 8;
+    // a tree this small is converted back to a chain
+    protected static final int UNTREEIFY_THRESHOLD = 6;
+    // smaller tables never treeify; growing them spreads the chains instead
+    protected static final int MIN_TREEIFY_CAPACITY = 64;
+
     protected Pair[] buckets; // array of list nodes that store K,V pairs
     protected int size; // how many items currently in the map
+    protected final HashStrategy<? super K> strategy; // hashes and compares keys
 
+    protected final boolean incremental; // true if resizes are spread out
+    protected Pair[] oldBuckets; // buckets being migrated, or null if none
+    protected int migrated; // oldBuckets[0..migrated-1] have been moved
+
+    // telemetry counters, reported by stats(); lookups and probes are only
+    // kept while countProbes is set, so plain lookups pay nothing for them
+    protected boolean countProbes;
+    protected long lookups; // chain searches performed
+    protected long probes; // pairs examined by those searches
+    protected int resizes; // number of times the table has grown
 
     /** class Pair stores a key-value pair and a next pointer for chaining
      * multiple values together in the same bucket, linked-list style*/
@@ -21,35 +79,310 @@ public class HashTable<K,V> {
         protected K key;
         protected V value;
         protected Pair next;
+        protected final int hash; // mixed hash of key
 
         /** constructor: sets key and value */
         public Pair(K k, V v) {
-            key = k;
-            value = v;
-            next = null;
+            this(k, v, null);
         }
 
         /** constructor: sets key, value, and next */
         public Pair(K k, V v, Pair nxt) {
+            this(spread(strategy.hashCode(k)), k, v, nxt);
+        }
+
+        /** constructor: sets the key's mixed hash, key, value, and next */
+        protected Pair(int h, K k, V v, Pair nxt) {
+            hash = h;
             key = k;
             value = v;
             next = nxt;
         }
 
+        /** Return the pair's key */
+        public K getKey() {
+            return key;
+        }
+
+        /** Return the pair's value */
+        public V getValue() {
+            return value;
+        }
+
         /** returns (k, v) String representation of the pair */
         public String toString() {
             return "(" + key + ", " + value + ")";
         }
     }
 
-    /** constructor: initialize with default capacity 17 */
+    /** A Pair that is a node of a TreeBin's AVL tree. Its next pointer is
+     * unused while it is in a tree. */
+    protected class TreeNode extends Pair {
+        protected TreeNode parent;
+        protected TreeNode left;
+        protected TreeNode right;
+        protected int height;
+
+        /** constructor: sets the key's mixed hash, key and value */
+        protected TreeNode(int h, K k, V v) {
+            super(h, k, v, null);
+        }
+    }
+
+    /** Stands in a bucket in place of a long chain and holds the chain's pairs
+     * in an AVL tree. Nodes are ordered by hash, then by compareTo if both
+     * keys are Comparable instances of the same class, then by identity hash
+     * code. A lookup only uses the first two; when they cannot order the key
+     * against a node, both subtrees are searched. */
+    protected class TreeBin extends Pair {
+        protected TreeNode root;
+        protected int count; // number of nodes in the tree
+
+        /** constructor: an empty tree */
+        protected TreeBin() {
+            super(0, null, null, null);
+        }
+
+        /** Return the node holding key, whose mixed hash is h, or null */
+        protected TreeNode find(int h, K key) {
+            return find(root, h, key);
+        }
+
+        private TreeNode find(TreeNode n, int h, K key) {
+            while (n != null) {
+                if (countProbes) probes++;
+                if (n.hash == h && strategy.equals(n.key, key)) {
+                    return n;
+                }
+                int cmp = compare(h, key, n);
+                if (cmp < 0) {
+                    n = n.left;
+                } else if (cmp > 0) {
+                    n = n.right;
+                } else {
+                    TreeNode found = find(n.right, h, key);
+                    if (found != null) {
+                        return found;
+                    }
+                    n = n.left;
+                }
+            }
+            return null;
+        }
+
+        /** Insert node, whose key is not in the tree, keeping AVL balance */
+        protected void insert(TreeNode x) {
+            x.left = null;
+            x.right = null;
+            x.height = 0;
+            count++;
+            if (root == null) {
+                x.parent = null;
+                root = x;
+                return;
+            }
+            TreeNode n = root;
+            while (true) {
+                int cmp = compare(x.hash, x.key, n);
+                if (cmp == 0) {
+                    cmp = System.identityHashCode(x.key) <= System.identityHashCode(n.key)
+                            ? -1 : 1;
+                }
+                TreeNode child = cmp < 0 ? n.left : n.right;
+                if (child == null) {
+                    x.parent = n;
+                    if (cmp < 0) {
+                        n.left = x;
+                    } else {
+                        n.right = x;
+                    }
+                    rebalance(n);
+                    return;
+                }
+                n = child;
+            }
+        }
+
+        /** Remove z from the tree, keeping AVL balance. z is relinked rather
+         * than having another node's contents copied into it, so pairs keep
+         * their identity. */
+        protected void delete(TreeNode z) {
+            TreeNode from; // lowest node whose height may have changed
+            if (z.left == null || z.right == null) {
+                replace(z, z.left != null ? z.left : z.right);
+                from = z.parent;
+            } else {
+                TreeNode y = z.right; // z's successor
+                while (y.left != null) {
+                    y = y.left;
+                }
+                if (y.parent != z) {
+                    from = y.parent;
+                    replace(y, y.right);
+                    y.right = z.right;
+                    y.right.parent = y;
+                } else {
+                    from = y;
+                }
+                replace(z, y);
+                y.left = z.left;
+                y.left.parent = y;
+                y.height = z.height;
+            }
+            z.parent = null;
+            z.left = null;
+            z.right = null;
+            count--;
+            rebalance(from);
+        }
+
+        /* put v where u is in u's parent (or at the root) */
+        private void replace(TreeNode u, TreeNode v) {
+            if (u.parent == null) {
+                root = v;
+            } else if (u == u.parent.left) {
+                u.parent.left = v;
+            } else {
+                u.parent.right = v;
+            }
+            if (v != null) {
+                v.parent = u.parent;
+            }
+        }
+
+        /* Order key (with mixed hash h) against n's key by hash, then by
+         * compareTo; return 0 if neither decides. */
+        @SuppressWarnings("unchecked")
+        private int compare(int h, K key, TreeNode n) {
+            if (h != n.hash) {
+                return h < n.hash ? -1 : 1;
+            }
+            if (key instanceof Comparable && key.getClass() == n.key.getClass()) {
+                return Integer.signum(((Comparable<Object>) key).compareTo(n.key));
+            }
+            return 0;
+        }
+
+        /* restore heights and AVL balance from n up to the root; the same
+         * walk as avl.AVL.rebalance */
+        private void rebalance(TreeNode n) {
+            while (n != null) {
+                n.height = Math.max(height(n.left), height(n.right)) + 1;
+                int balance = height(n.left) - height(n.right);
+                if (balance > 1) {
+                    if (height(n.left.left) < height(n.left.right)) {
+                        leftRotate(n.left);
+                    }
+                    rightRotate(n);
+                } else if (balance < -1) {
+                    if (height(n.right.right) < height(n.right.left)) {
+                        rightRotate(n.right);
+                    }
+                    leftRotate(n);
+                }
+                n = n.parent;
+            }
+        }
+
+        /* rotate on the edge from x to its right child */
+        private void leftRotate(TreeNode x) {
+            TreeNode y = x.right;
+            x.right = y.left;
+            if (y.left != null) {
+                y.left.parent = x;
+            }
+            replace(x, y);
+            y.left = x;
+            x.parent = y;
+            x.height = Math.max(height(x.left), height(x.right)) + 1;
+            y.height = Math.max(height(y.left), height(y.right)) + 1;
+        }
+
+        /* rotate on the edge from y to its left child */
+        private void rightRotate(TreeNode y) {
+            TreeNode x = y.left;
+            y.left = x.right;
+            if (x.right != null) {
+                x.right.parent = y;
+            }
+            replace(y, x);
+            x.right = y;
+            y.parent = x;
+            y.height = Math.max(height(y.left), height(y.right)) + 1;
+            x.height = Math.max(height(x.left), height(x.right)) + 1;
+        }
+
+        private int height(TreeNode n) {
+            return n == null ? -1 : n.height;
+        }
+
+        /** Take every node out of the tree and return them as a chain linked
+         * by next, in key order; the tree is left empty. */
+        protected Pair toChain() {
+            Pair chain = collect(root, null);
+            root = null;
+            count = 0;
+            return chain;
+        }
+
+        /* prepend the nodes of n's subtree to chain in key order, clearing
+         * their tree links, and return the new head of the chain */
+        private Pair collect(TreeNode n, Pair chain) {
+            if (n == null) {
+                return chain;
+            }
+            chain = collect(n.right, chain);
+            TreeNode left = n.left;
+            n.parent = null;
+            n.left = null;
+            n.right = null;
+            n.next = chain;
+            return collect(left, n);
+        }
+
+        /** returns a description of the tree's contents */
+        public String toString() {
+            StringBuilder sb = new StringBuilder("tree[");
+            appendInOrder(root, sb);
+            return sb.append(']').toString();
+        }
+
+        private void appendInOrder(TreeNode n, StringBuilder sb) {
+            if (n != null) {
+                appendInOrder(n.left, sb);
+                sb.append(n);
+                appendInOrder(n.right, sb);
+            }
+        }
+    }
+
+    /** constructor: initialize with default capacity 16 */
     public HashTable() {
-        this(17);
+        this(16);
     }
 
-    /** constructor: initialize the given capacity */
+    /** constructor: initialize the given capacity, rounded up to a power of
+     * two */
     public HashTable(int capacity) {
-        buckets = createBucketArray(capacity);
+        this(capacity, false);
+    }
+
+    /** constructor: initialize the given capacity; if incremental is true,
+     * resizes migrate a few buckets per operation instead of all at once */
+    public HashTable(int capacity, boolean incremental) {
+        this(capacity, incremental, HashStrategy.natural());
+    }
+
+    /** constructor: initialize the given capacity, resize mode and hashing
+     * strategy */
+    public HashTable(int capacity, boolean incremental, HashStrategy<? super K> strategy) {
+        int cap = 1;
+        while (cap < capacity) {
+            cap *= 2;
+        }
+        buckets = createBucketArray(cap);
+        this.incremental = incremental;
+        this.strategy = strategy;
     }
 
     /** Return the size of the map (the number of key-value mappings in the
@@ -64,24 +397,81 @@ public class HashTable<K,V> {
         return buckets.length;
     }
 
+    /** Return true if an incremental resize is still in progress */
+    public boolean isResizing() {
+        return oldBuckets != null;
+    }
+
     /** Return the value to which the specified key is mapped, or null if this
      * map contains no mapping for the key.
      * Runtime: average case O(1); worst case O(size) */
     public V get(K key) {
-        int index = hash(key);
-        Pair node = buckets[index];
-        while (node != null) {
-            if (node.key.equals(key)) {
-                return node.value;
-            }
-            node = node.next;
+        migrateStep();
+        Pair node = lookup(spread(strategy.hashCode(key)), key);
+        if (node == null) {
+            afterMiss(key);
+            return null;
         }
-        return null;
+        afterAccess(node);
+        return node.value;
     }
 
     // return hash key
     public int hash(K key){
-        return (key.hashCode() & 0x7FFFFFFF) % buckets.length;
+        return spread(strategy.hashCode(key)) & (buckets.length - 1);
+    }
+
+    /** Mix the bits of a hash code so that keys whose codes differ only in
+     * their high bits (such as short Strings) still land in different
+     * buckets once the code is masked down to a bucket index. Every hashed
+     * structure in this package, and graph's, mixes its hashes with this. */
+    public static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    /* Return the node holding key, whose mixed hash is h, looking in the new
+     * buckets and, during an incremental resize, in key's old bucket if it
+     * has not been migrated yet. Return null if key is not in the table. */
+    private Pair findPair(int h, K key) {
+        Pair node = search(buckets[h & (buckets.length - 1)], h, key);
+        if (node == null && oldBuckets != null) {
+            int oldIndex = h & (oldBuckets.length - 1);
+            if (oldIndex >= migrated) {
+                node = search(oldBuckets[oldIndex], h, key);
+            }
+        }
+        return node;
+    }
+
+    /* findPair, except that a pair the subclass reports as expired is
+     * removed, passed to afterExpire and treated as absent */
+    private Pair lookup(int h, K key) {
+        Pair node = findPair(h, key);
+        if (node != null && isExpired(node)) {
+            removeMapping(h, key);
+            afterExpire(node);
+            return null;
+        }
+        return node;
+    }
+
+    /* Return the node holding key in the bucket whose head is node, or null */
+    private Pair search(Pair node, int h, K key) {
+        if (countProbes) lookups++;
+        if (node instanceof HashTable.TreeBin) {
+            return ((TreeBin) node).find(h, key);
+        }
+        while (node != null) {
+            if (countProbes) probes++;
+            if (node.hash == h && strategy.equals(node.key, key)) {
+                return node;
+            }
+            node = node.next;
+        }
+        return null;
     }
 
     /** Associate the specified value with the specified key in this map. If
@@ -93,54 +483,420 @@ public class HashTable<K,V> {
      * Runtime: average case O(1); worst case O(size + a.length)*/
     public V put(K key, V val) {
         if (val == null) throw new IllegalArgumentException("Value cannot be null.");
-        int index = hash(key);
-        Pair node = buckets[index];
-        while (node != null) {
-            if (node.key.equals(key)) {
-                V oldValue = node.value;
-                node.value = val;
-                return oldValue;
-            }
-            node = node.next;
+        migrateStep();
+        int h = spread(strategy.hashCode(key));
+        Pair node = lookup(h, key);
+        if (node != null) {
+            V oldValue = node.value;
+            node.value = val;
+            afterUpdate(node, oldValue);
+            return oldValue;
         }
-        buckets[index] = new Pair(key, val, buckets[index]);
-        size++;
-        growIfNeeded();
+        insert(h, key, val);
         return null;
     }
 
     /** Return true if this map contains a mapping for the specified key.
      *  Runtime: average case O(1); worst case O(size) */
     public boolean containsKey(K key) {
-        int index = hash(key);
-        Pair node = buckets[index];
-        while (node != null) {
-            if (node.key.equals(key)) {
-                return true;
+        migrateStep();
+        return lookup(spread(strategy.hashCode(key)), key) != null;
+    }
+
+    /** Return the value to which key is mapped, or defaultValue if this map
+     * contains no mapping for the key.
+     * Runtime: average case O(1); worst case O(size) */
+    public V getOrDefault(K key, V defaultValue) {
+        migrateStep();
+        Pair node = lookup(spread(strategy.hashCode(key)), key);
+        if (node == null) {
+            afterMiss(key);
+            return defaultValue;
+        }
+        afterAccess(node);
+        return node.value;
+    }
+
+    /** Associate val with key only if key has no mapping. Return the existing
+     * value if there was one (leaving it unchanged), or null if val was
+     * inserted.
+     * Precondition: val is not null.
+     * Runtime: average case O(1); worst case O(size + capacity) */
+    public V putIfAbsent(K key, V val) {
+        if (val == null) throw new IllegalArgumentException("Value cannot be null.");
+        migrateStep();
+        int h = spread(strategy.hashCode(key));
+        Pair node = lookup(h, key);
+        if (node != null) {
+            afterAccess(node);
+            return node.value;
+        }
+        afterMiss(key);
+        insert(h, key, val);
+        return null;
+    }
+
+    /** Return the value mapped to key. If there is none, compute one with
+     * mappingFunction, insert it unless it is null, and return it.
+     * Runtime: average case O(1); worst case O(size + capacity) */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        migrateStep();
+        int h = spread(strategy.hashCode(key));
+        Pair node = lookup(h, key);
+        if (node != null) {
+            afterAccess(node);
+            return node.value;
+        }
+        afterMiss(key);
+        V val = mappingFunction.apply(key);
+        if (val != null) {
+            insert(h, key, val);
+        }
+        return val;
+    }
+
+    /** Replace the mapping for key with the result of applying remapping to
+     * key and its current value (null if there is none). If the result is
+     * null the mapping is removed. Return the new value, or null if there is
+     * none. remapping must not modify this table.
+     * Runtime: average case O(1); worst case O(size + capacity) */
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remapping) {
+        migrateStep();
+        int h = spread(strategy.hashCode(key));
+        Pair node = lookup(h, key);
+        V val = remapping.apply(key, node == null ? null : node.value);
+        update(h, key, node, val);
+        return val;
+    }
+
+    /** If key has no mapping, map it to val; otherwise replace its value with
+     * the result of applying remapping to the old value and val, removing the
+     * mapping if the result is null. Return the new value, or null if there
+     * is none. remapping must not modify this table.
+     * Precondition: val is not null.
+     * Runtime: average case O(1); worst case O(size + capacity) */
+    public V merge(K key, V val, BiFunction<? super V, ? super V, ? extends V> remapping) {
+        if (val == null) throw new IllegalArgumentException("Value cannot be null.");
+        migrateStep();
+        int h = spread(strategy.hashCode(key));
+        Pair node = lookup(h, key);
+        V newValue = node == null ? val : remapping.apply(node.value, val);
+        update(h, key, node, newValue);
+        return newValue;
+    }
+
+    /** Copy every mapping of other into this table, replacing existing values
+     * for equal keys. The table is grown once, up front, to hold the
+     * combined number of mappings instead of doubling repeatedly.
+     * Runtime: O(other.getSize() + capacity) */
+    public void putAll(HashTable<? extends K, ? extends V> other) {
+        ensureCapacity(size + other.getSize());
+        for (HashTable<? extends K, ? extends V>.Pair pair : other.entries()) {
+            put(pair.key, pair.value);
+        }
+    }
+
+    /** Grow the table, if needed, so that it can hold expectedSize mappings
+     * without exceeding a load factor of 0.8.
+     * Runtime: O(size + capacity) if the table grows, O(1) otherwise */
+    public void ensureCapacity(int expectedSize) {
+        int cap = buckets.length;
+        while ((double) expectedSize / cap > 0.8) {
+            cap *= 2;
+        }
+        if (cap > buckets.length) {
+            resize(cap);
+        }
+    }
+
+    /** Call action on each key and value in the table without allocating
+     * anything per entry. action must not modify the table, and in
+     * incremental mode must not look anything up in it either, since lookups
+     * migrate buckets. */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (Pair pair : entries()) {
+            action.accept(pair.key, pair.value);
+        }
+    }
+
+    /** Return an Iterable over the table's pairs. The iterator hands out the
+     * table's own Pair objects, so iterating allocates nothing per entry; the
+     * pairs must not be kept beyond the table's next modification. As with
+     * forEach, the table must not be modified (or, in incremental mode,
+     * searched) during iteration. */
+    public Iterable<Pair> entries() {
+        return EntryIterator::new;
+    }
+
+    /** Return an Iterable over the table's keys, with the same rules as
+     * entries() */
+    public Iterable<K> keys() {
+        return () -> new Iterator<K>() {
+            private final EntryIterator it = new EntryIterator();
+
+            public boolean hasNext() {
+                return it.hasNext();
             }
-            node = node.next;
+
+            public K next() {
+                return it.next().key;
+            }
+        };
+    }
+
+    /** Return an immutable FrozenHashTable with the table's current
+     * mappings, which answers get with a single probe. The snapshot hashes
+     * and compares keys with this table's strategy and is unaffected by later
+     * changes to this table.
+     * Runtime: expected O(size) */
+    public FrozenHashTable<K,V> freeze() {
+        Object[] keys = new Object[size];
+        Object[] values = new Object[size];
+        int[] hashes = new int[size];
+        int n = 0;
+        for (Pair pair : entries()) {
+            if (!isExpired(pair)) {
+                keys[n] = pair.key;
+                values[n] = pair.value;
+                hashes[n] = pair.hash;
+                n++;
+            }
+        }
+        return new FrozenHashTable<K,V>(strategy, keys, values, hashes, n);
+    }
+
+    /** Walks the pairs of the new bucket array and then of any unmigrated old
+     * buckets, descending into tree bins in key order. */
+    private class EntryIterator implements Iterator<Pair> {
+        private Pair[] table = buckets; // array being walked
+        private int index = -1; // bucket of the current pair
+        private Pair next; // the pair to return next, or null at the end
+        private boolean inTree; // true if next is in a TreeBin, not a chain
+
+        EntryIterator() {
+            advanceBucket();
+        }
+
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        public Pair next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Pair current = next;
+            // a flattened tree leaves TreeNodes in ordinary chains, so the
+            // node's class does not say how to find its successor
+            if (inTree) {
+                next = successor((TreeNode) current);
+            } else {
+                next = current.next;
+            }
+            if (next == null) {
+                advanceBucket();
+            }
+            return current;
+        }
+
+        /* move next to the first pair of the next nonempty bucket */
+        private void advanceBucket() {
+            while (true) {
+                index++;
+                if (index == table.length) {
+                    if (table != buckets || oldBuckets == null) {
+                        next = null;
+                        return;
+                    }
+                    table = oldBuckets;
+                    index = migrated;
+                    if (index == table.length) {
+                        next = null;
+                        return;
+                    }
+                }
+                Pair head = table[index];
+                inTree = head instanceof HashTable.TreeBin;
+                if (inTree) {
+                    TreeNode root = ((TreeBin) head).root;
+                    next = root == null ? null : leftmost(root);
+                } else {
+                    next = head;
+                }
+                if (next != null) {
+                    return;
+                }
+            }
+        }
+
+        private TreeNode leftmost(TreeNode n) {
+            while (n.left != null) {
+                n = n.left;
+            }
+            return n;
+        }
+
+        /* return the in-order successor of n within its tree, or null */
+        private TreeNode successor(TreeNode n) {
+            if (n.right != null) {
+                return leftmost(n.right);
+            }
+            while (n.parent != null && n == n.parent.right) {
+                n = n.parent;
+            }
+            return n.parent;
         }
+    }
+
+    /* add a mapping for key, whose mixed hash is h and which is known not to
+     * be in the table */
+    private void insert(int h, K key, V val) {
+        int index = h & (buckets.length - 1);
+        Pair node;
+        if (buckets[index] instanceof HashTable.TreeBin) {
+            node = newTreeNode(h, key, val);
+        } else {
+            node = newPair(h, key, val);
+        }
+        link(buckets, index, node);
+        size++;
+        afterInsert(node);
+        // count only now: afterInsert may have evicted pairs from this chain,
+        // and must see the pair it was given before any treeify
+        if (isLongChain(buckets, index)) {
+            treeify(buckets, index);
+        }
+        growIfNeeded();
+    }
+
+    /* Give key, whose mixed hash is h and whose current pair is node (or null
+     * if absent), the value val; a null val removes the mapping. */
+    private void update(int h, K key, Pair node, V val) {
+        if (node == null) {
+            if (val != null) {
+                insert(h, key, val);
+            }
+        } else if (val != null) {
+            V oldValue = node.value;
+            node.value = val;
+            afterUpdate(node, oldValue);
+        } else {
+            removeMapping(h, key);
+        }
+    }
+
+    /** Factory: return a new pair for the mapping from key, whose mixed
+     * hash is h, to val, about to be added to a chain. Treeifying a chain
+     * replaces each pair that is not a TreeNode with a copy from newTreeNode,
+     * so a subclass that keeps state in its pairs should return TreeNodes. */
+    protected Pair newPair(int h, K key, V val) {
+        return new Pair(h, key, val, null);
+    }
+
+    /** Factory: return a new tree node for the mapping from key, whose mixed
+     * hash is h, to val, about to be added to a tree bin. */
+    protected TreeNode newTreeNode(int h, K key, V val) {
+        return new TreeNode(h, key, val);
+    }
+
+    /** Hook: called after get, getOrDefault, putIfAbsent or computeIfAbsent
+     * finds node. */
+    protected void afterAccess(Pair node) {
+    }
+
+    /** Hook: called when get, getOrDefault, putIfAbsent or computeIfAbsent
+     * finds no mapping for key. */
+    protected void afterMiss(K key) {
+    }
+
+    /** Hook: called after node's value is replaced; oldValue is the value it
+     * had before. */
+    protected void afterUpdate(Pair node, V oldValue) {
+    }
+
+    /** Hook: called after a new mapping, node, is added to the table. */
+    protected void afterInsert(Pair node) {
+    }
+
+    /** Hook: called after node is removed from the table for any reason. */
+    protected void afterRemove(Pair node) {
+    }
+
+    /** Hook: called after node, which isExpired reported as expired, is
+     * removed by the lookup or remove that found it. afterRemove has already
+     * been called for it. */
+    protected void afterExpire(Pair node) {
+    }
+
+    /** Hook: return true if node should be treated as absent; lookups that
+     * find such a node remove it instead of returning it. This must only
+     * look at node, since it may be asked about a node more than once. */
+    protected boolean isExpired(Pair node) {
         return false;
     }
-    
 
     /** Remove the mapping for the specified key from this map if present.
      *  Return the previous value associated with key, or null if there was no
      *  mapping for key.
      *  Runtime: average case O(1); worst case O(size)*/
     public V remove(K key) {
-        int index = hash(key);
-        Pair node = buckets[index];
+        migrateStep();
+        Pair node = removeMapping(spread(strategy.hashCode(key)), key);
+        if (node == null) {
+            return null;
+        }
+        if (isExpired(node)) {
+            afterExpire(node);
+            return null;
+        }
+        return node.value;
+    }
+
+    /** Remove key, whose mixed hash is h, from whichever bucket array holds
+     * it; return its pair, or null if it was not in the table. */
+    protected Pair removeMapping(int h, K key) {
+        Pair node = removeFrom(buckets, h & (buckets.length - 1), h, key);
+        if (node == null && oldBuckets != null) {
+            int oldIndex = h & (oldBuckets.length - 1);
+            if (oldIndex >= migrated) {
+                node = removeFrom(oldBuckets, oldIndex, h, key);
+            }
+        }
+        if (node != null) {
+            afterRemove(node);
+        }
+        return node;
+    }
+
+    /* unlink key, whose mixed hash is h, from the bucket at table[index];
+     * return its pair, or null if the bucket does not contain key */
+    private Pair removeFrom(Pair[] table, int index, int h, K key) {
+        Pair node = table[index];
         Pair prev = null;
+        if (countProbes) lookups++;
+        if (node instanceof HashTable.TreeBin) {
+            TreeBin bin = (TreeBin) node;
+            TreeNode found = bin.find(h, key);
+            if (found == null) {
+                return null;
+            }
+            bin.delete(found);
+            if (bin.count <= UNTREEIFY_THRESHOLD) {
+                table[index] = bin.toChain();
+            }
+            size--;
+            return found;
+        }
         while (node != null) {
-            if (node.key.equals(key)) {
+            if (countProbes) probes++;
+            if (node.hash == h && strategy.equals(node.key, key)) {
                 if (prev == null) {
-                    buckets[index] = node.next;
+                    table[index] = node.next;
                 } else {
                     prev.next = node.next;
                 }
                 size--;
-                return node.value;
+                return node;
             }
             prev = node;
             node = node.next;
@@ -151,18 +907,250 @@ public class HashTable<K,V> {
 
     // suggested helper method:
     /* check the load factor; if it exceeds 0.8, double the capacity 
-     * and rehash values from the old array to the new array */
+     * and rehash values from the old array to the new array. In incremental
+     * mode only the new array is allocated here; migrateStep moves the
+     * entries over later. */
     private void growIfNeeded() {
         if ((double) size / buckets.length > 0.8) {
-            Pair[] oldBuckets = buckets;
-            buckets = createBucketArray(oldBuckets.length * 2);
-            size = 0;
-            for (Pair node : oldBuckets) {
-                while (node != null) {
-                    put(node.key, node.value);
-                    node = node.next;
+            resize(buckets.length * 2);
+        }
+    }
+
+    /* switch to a bucket array of the given capacity, a power of two larger
+     * than the current one, and move the entries over now or, in incremental
+     * mode, over the following operations */
+    private void resize(int capacity) {
+        // a resize still in progress must finish before the next begins
+        finishMigration();
+        oldBuckets = buckets;
+        migrated = 0;
+        buckets = createBucketArray(capacity);
+        resizes++;
+        if (!incremental) {
+            finishMigration();
+        }
+    }
+
+    /* move up to MIGRATE_STEP old buckets into the new bucket array */
+    private void migrateStep() {
+        if (oldBuckets == null) {
+            return;
+        }
+        int end = Math.min(migrated + MIGRATE_STEP, oldBuckets.length);
+        while (migrated < end) {
+            transfer(migrated);
+            migrated++;
+        }
+        if (migrated == oldBuckets.length) {
+            oldBuckets = null;
+        }
+    }
+
+    /* move every remaining old bucket into the new bucket array */
+    private void finishMigration() {
+        if (oldBuckets == null) {
+            return;
+        }
+        while (migrated < oldBuckets.length) {
+            transfer(migrated);
+            migrated++;
+        }
+        oldBuckets = null;
+    }
+
+    /* relink each node of oldBuckets[index] into its bucket in the new array;
+     * the nodes themselves are reused, not reallocated, and their stored
+     * hashes mean no key is hashed again */
+    private void transfer(int index) {
+        Pair node = oldBuckets[index];
+        oldBuckets[index] = null;
+        if (node instanceof HashTable.TreeBin) {
+            node = ((TreeBin) node).toChain();
+        }
+        int mask = buckets.length - 1;
+        while (node != null) {
+            Pair next = node.next;
+            int newIndex = node.hash & mask;
+            if (link(buckets, newIndex, node)) {
+                treeify(buckets, newIndex);
+            }
+            node = next;
+        }
+    }
+
+    /* Add node, whose key is not in the table, to the bucket table[index].
+     * Return true if the bucket is now a chain long enough to treeify. */
+    private boolean link(Pair[] table, int index, Pair node) {
+        Pair head = table[index];
+        if (head instanceof HashTable.TreeBin) {
+            ((TreeBin) head).insert(asTreeNode(node));
+            return false;
+        }
+        node.next = head;
+        table[index] = node;
+        return isLongChain(table, index);
+    }
+
+    /* Return true if table[index] is a chain long enough to treeify, in a
+     * table large enough to allow it. */
+    private boolean isLongChain(Pair[] table, int index) {
+        if (table.length < MIN_TREEIFY_CAPACITY || table[index] instanceof HashTable.TreeBin) {
+            return false;
+        }
+        int length = 0;
+        for (Pair p = table[index]; p != null && length < TREEIFY_THRESHOLD; p = p.next) {
+            length++;
+        }
+        return length >= TREEIFY_THRESHOLD;
+    }
+
+    /* replace the chain at table[index] with a TreeBin holding its pairs */
+    private void treeify(Pair[] table, int index) {
+        TreeBin bin = new TreeBin();
+        Pair node = table[index];
+        while (node != null) {
+            Pair next = node.next;
+            bin.insert(asTreeNode(node));
+            node = next;
+        }
+        table[index] = bin;
+    }
+
+    /* Return node itself if it is already a TreeNode, otherwise a TreeNode
+     * holding the same mapping. */
+    protected TreeNode asTreeNode(Pair node) {
+        if (node instanceof HashTable.TreeNode) {
+            node.next = null;
+            return (TreeNode) node;
+        }
+        return newTreeNode(node.hash, node.key, node.value);
+    }
+
+    /** Return a snapshot of the table's health: how long its chains are, how
+     * many pairs an average lookup examines and how often it has resized.
+     * Computing the chain histogram takes O(size + capacity) time; the other
+     * figures are running counters, which resetCounters clears. Lookups and
+     * probes are only counted while setCountProbes(true) is in effect. */
+    public Stats stats() {
+        int[] histogram = new int[Stats.HISTOGRAM_SIZE];
+        int maxChain = tallyChains(buckets, 0, histogram);
+        if (oldBuckets != null) {
+            maxChain = Math.max(maxChain, tallyChains(oldBuckets, migrated, histogram));
+        }
+        int trees = countTrees(buckets, 0);
+        if (oldBuckets != null) {
+            trees += countTrees(oldBuckets, migrated);
+        }
+        return new Stats(size, buckets.length, histogram, maxChain, trees,
+                lookups, probes, resizes);
+    }
+
+    /* add the length of each chain in table[first..] to histogram and return
+     * the longest length seen; a tree counts as a chain of its size */
+    private int tallyChains(Pair[] table, int first, int[] histogram) {
+        int maxChain = 0;
+        for (int i = first; i < table.length; i++) {
+            int length = 0;
+            if (table[i] instanceof HashTable.TreeBin) {
+                length = ((TreeBin) table[i]).count;
+            } else {
+                for (Pair node = table[i]; node != null; node = node.next) {
+                    length++;
                 }
             }
+            histogram[Math.min(length, Stats.HISTOGRAM_SIZE - 1)]++;
+            maxChain = Math.max(maxChain, length);
+        }
+        return maxChain;
+    }
+
+    /* return the number of TreeBins in table[first..] */
+    private int countTrees(Pair[] table, int first) {
+        int trees = 0;
+        for (int i = first; i < table.length; i++) {
+            if (table[i] instanceof HashTable.TreeBin) {
+                trees++;
+            }
+        }
+        return trees;
+    }
+
+    /** Start or stop counting the lookups and probes reported by stats().
+     * Counting is off by default, since it costs every get a few writes. */
+    public void setCountProbes(boolean countProbes) {
+        this.countProbes = countProbes;
+    }
+
+    /** Reset the lookup and probe counters reported by stats() */
+    public void resetCounters() {
+        lookups = 0;
+        probes = 0;
+    }
+
+    /** An immutable report of a HashTable's chain lengths and probe counts,
+     * produced by HashTable.stats(). */
+    public static class Stats {
+        /** chains of this length or longer share the last histogram slot */
+        public static final int HISTOGRAM_SIZE = 16;
+
+        public final int size; // number of mappings
+        public final int capacity; // number of buckets
+        private final int[] chainHistogram; // [n] = buckets with n pairs
+        public final int maxChain; // length of the longest chain
+        public final int treeBins; // buckets holding a tree, not a chain
+        public final long lookups; // chain searches since the last reset
+        public final long probes; // pairs examined by those searches
+        public final int resizes; // times the table has grown
+
+        /** constructor: sets every field */
+        public Stats(int size, int capacity, int[] chainHistogram, int maxChain,
+                int treeBins, long lookups, long probes, int resizes) {
+            this.size = size;
+            this.capacity = capacity;
+            this.chainHistogram = chainHistogram.clone();
+            this.maxChain = maxChain;
+            this.treeBins = treeBins;
+            this.lookups = lookups;
+            this.probes = probes;
+            this.resizes = resizes;
+        }
+
+        /** Return a copy of the chain length histogram: element n is the
+         * number of buckets holding n pairs, and the last element counts
+         * every longer chain too. */
+        public int[] getChainHistogram() {
+            return chainHistogram.clone();
+        }
+
+        /** Return the average number of pairs examined per lookup */
+        public double probesPerLookup() {
+            return lookups == 0 ? 0 : (double) probes / lookups;
+        }
+
+        /** Return the ratio of mappings to buckets */
+        public double loadFactor() {
+            return (double) size / capacity;
+        }
+
+        /** returns a multi-line summary of the statistics */
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("size ").append(size).append(" capacity ").append(capacity)
+                    .append(" load ").append(String.format("%.3f", loadFactor()))
+                    .append(" resizes ").append(resizes).append('\n');
+            sb.append("max chain ").append(maxChain).append(" tree bins ")
+                    .append(treeBins).append(" probes/lookup ")
+                    .append(String.format("%.3f", probesPerLookup()))
+                    .append(" over ").append(lookups).append(" lookups\n");
+            sb.append("chain length histogram:");
+            for (int i = 0; i < chainHistogram.length; i++) {
+                if (chainHistogram[i] != 0) {
+                    sb.append(' ').append(i)
+                            .append(i == HISTOGRAM_SIZE - 1 ? "+" : "")
+                            .append(':').append(chainHistogram[i]);
+                }
+            }
+            return sb.toString();
         }
     }
 
@@ -182,6 +1170,19 @@ public class HashTable<K,V> {
             }
             System.out.println("|");
         }
+        if (oldBuckets != null) {
+            System.out.println("Migrating from capacity " + oldBuckets.length +
+                    ", " + migrated + " buckets moved");
+            for (int i = migrated; i < oldBuckets.length; i++) {
+                System.out.print("old " + i + ": --");
+                Pair node = oldBuckets[i];
+                while (node != null) {
+                    System.out.print(">" + node + "--");
+                    node = node.next;
+                }
+                System.out.println("|");
+            }
+        }
     }
 
     /*  Create and return a bucket array with the specified size, initializing
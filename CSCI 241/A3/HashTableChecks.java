@@ -0,0 +1,128 @@
+package heap;
+
+/*
+ * Author: Ben Fry-Holman
+ * Date: 7/25/2024
+ * Purpose: Hashes for A3
+ */
+
+/** Regression checks for HashTable and its subclasses. Each check throws an
+ * IllegalStateException describing the first thing it finds wrong. Usage:
+ *   java heap.HashTableChecks */
+public class HashTableChecks {
+
+    // hashes every key to the same bucket, so chains grow into trees
+    private static final HashStrategy<Integer> COLLIDING = new HashStrategy<Integer>() {
+        public int hashCode(Integer key) {
+            return 0;
+        }
+
+        public boolean equals(Integer a, Integer b) {
+            return a.equals(b);
+        }
+    };
+
+    public static void main(String[] args) {
+        iterateAfterUntreeify();
+        freezeExpiresOnce();
+        noTreeAfterEvictingChain();
+        System.out.println("All checks passed.");
+    }
+
+    /* A tree bin that shrinks back into a chain leaves TreeNodes in it;
+     * iteration must still follow the chain and see every pair. */
+    private static void iterateAfterUntreeify() {
+        HashTable<Integer, Integer> table = new HashTable<Integer, Integer>(64, false, COLLIDING);
+        int n = 2 * HashTable.TREEIFY_THRESHOLD;
+        for (int i = 0; i < n; i++) {
+            table.put(i, i);
+        }
+        check(table.stats().treeBins == 1, "expected one tree bin, got " + table.stats().treeBins);
+        for (int i = 0; i < n - HashTable.UNTREEIFY_THRESHOLD; i++) {
+            table.remove(i);
+        }
+        check(table.stats().treeBins == 0, "expected the tree bin to become a chain");
+
+        int seen = 0;
+        for (HashTable<Integer, Integer>.Pair pair : table.entries()) {
+            check(table.get(pair.getKey()) != null, "iterated a key not in the table: " + pair.getKey());
+            seen++;
+        }
+        check(seen == table.getSize(), "entries() saw " + seen + " of " + table.getSize() + " pairs");
+        int[] keys = new int[1];
+        table.keys().forEach(k -> keys[0]++);
+        check(keys[0] == table.getSize(), "keys() saw " + keys[0] + " of " + table.getSize() + " keys");
+        int[] each = new int[1];
+        table.forEach((k, v) -> each[0]++);
+        check(each[0] == table.getSize(), "forEach saw " + each[0] + " of " + table.getSize() + " pairs");
+    }
+
+    /* Freezing a bounded table drops its expired pairs; each must be counted
+     * and reported exactly once, however often the table is frozen. */
+    private static void freezeExpiresOnce() {
+        long[] clock = new long[1];
+        BoundedHashTable<Integer, Integer> table = new BoundedHashTable<Integer, Integer>(16) {
+            @Override
+            protected long now() {
+                return clock[0];
+            }
+        };
+        table.setTimeToLive(10);
+        int[] expired = new int[1];
+        table.setEvictionListener((k, v, wasExpired) -> {
+            check(wasExpired, "evicted " + k + " without it expiring");
+            expired[0]++;
+        });
+        table.put(1, 1);
+        table.put(2, 2);
+        clock[0] = 5;
+        table.put(3, 3);
+        clock[0] = 12;
+
+        check(table.freeze().getSize() == 1, "the first freeze kept an expired pair");
+        check(table.freeze().getSize() == 1, "the second freeze kept an expired pair");
+        check(table.getSize() == 1, "freezing left " + table.getSize() + " pairs, expected 1");
+        check(table.get(1) == null && table.get(3) == 3, "wrong mappings after freezing");
+        check(table.getExpirations() == 2, "counted " + table.getExpirations() + " expirations, expected 2");
+        check(expired[0] == 2, "the listener heard of " + expired[0] + " expirations, expected 2");
+    }
+
+    /* An insert whose afterInsert evicts its own chain must not then turn
+     * the emptied chain into a tree bin. */
+    private static void noTreeAfterEvictingChain() {
+        BoundedHashTable<Colliding, Integer> table = new BoundedHashTable<Colliding, Integer>(100);
+        table.ensureCapacity(200);
+        table.setMaxWeight(HashTable.TREEIFY_THRESHOLD, (k, v) -> v);
+        for (int i = 0; i < HashTable.TREEIFY_THRESHOLD - 1; i++) {
+            table.put(new Colliding(i), 1);
+        }
+        // too heavy to keep, so it evicts every pair in the chain, itself included
+        table.put(new Colliding(-1), 100);
+        HashTable.Stats stats = table.stats();
+        check(stats.size == 0, "expected an empty table, got " + stats.size + " pairs");
+        check(stats.treeBins == 0, "an emptied chain became " + stats.treeBins + " tree bin(s)");
+    }
+
+    // a key whose hash code is the same for every instance
+    private static final class Colliding {
+        private final int id;
+
+        Colliding(int id) {
+            this.id = id;
+        }
+
+        public int hashCode() {
+            return 0;
+        }
+
+        public boolean equals(Object o) {
+            return o instanceof Colliding && ((Colliding) o).id == id;
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
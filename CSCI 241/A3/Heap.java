@@ -8,19 +8,26 @@ import java.util.NoSuchElementException;
 
 /** An instance is a min-heap of distinct values of type V with
  *  priorities of type P. Since it's a min-heap, the value
- *  with the smallest priority is at the root of the heap. */
-public final class Heap<V, P extends Comparable<P>> {
+ *  with the smallest priority is at the root of the heap.
+ *
+ *  The heap is d-ary: each node has up to `arity` children (2 by default).
+ *  A wider heap such as a 4-ary or 8-ary one is shallower, so bubbleUp,
+ *  which decrease-key-heavy algorithms like Dijkstra's call most, does fewer
+ *  steps, and the children compared in bubbleDown sit next to each other.
+ *  To keep only the k best of many values, use a TopKHeap instead. */
+public final class Heap<V, P extends Comparable<P>> implements MinPriorityQueue<V, P> {
 
     // TODO 1.1: Read and understand the class invariants given in the
     // following comment:
 
     /**
-     * The contents of c represent a complete binary tree. We use square-bracket
-     * shorthand to denote indexing into the AList (which is actually
-     * accomplished using its get method. In the complete tree,
-     * c[0] is the root; c[2i+1] is the left child of c[i] and c[2i+2] is the
-     * right child of i.  If c[i] is not the root, then c[(i-1)/2] (using
-     * integer division) is the parent of c[i].
+     * The contents of c represent a complete d-ary tree, d = arity. We use
+     * square-bracket shorthand to denote indexing into the AList (which is
+     * actually accomplished using its get method. In the complete tree,
+     * c[0] is the root; c[d*i+1] through c[d*i+d] are the children of c[i],
+     * in order (for d = 2, c[2i+1] is the left child and c[2i+2] the right).
+     * If c[i] is not the root, then c[(i-1)/d] (using integer division) is
+     * the parent of c[i].
      *
      * Class Invariants:
      *
@@ -37,15 +44,55 @@ public final class Heap<V, P extends Comparable<P>> {
      *     4. map contains one entry for each element of the heap, so
      *        map.size() == c.size()
      *     5. For each value v in the heap, its map entry contains in
-     *        the index of v in c. Thus: map.get(c[i]) = i.
+     *        the index of v in c. Thus: map.getInt(c[i]) = i.
+     *
+     * map stores indices as primitive ints, so moving an entry during
+     * bubbleUp or bubbleDown updates the index without boxing an Integer.
+     * Both move a hole instead of swapping: entries in the way shift into
+     * the hole, and the entry being placed is written once at the end, so
+     * only entries that actually move have their index updated.
      */
     protected AList<Entry> c;
-    protected HashTable<V, Integer> map;
+    protected ObjectIntMap<V> map;
+    protected final int arity; // maximum number of children of a node
 
-    /** Constructor: an empty heap with capacity 10. */
+    /** Constructor: an empty binary heap with capacity 10. */
     public Heap() {
-        c = new AList<Entry>(10);
-        map = new HashTable<V, Integer>();
+        this(2, false);
+    }
+
+    /** Constructor: an empty heap in which each node has up to arity
+     *  children.
+     *  @throws IllegalArgumentException if arity < 2 */
+    public Heap(int arity) {
+        this(arity, false);
+    }
+
+    /** Constructor: an empty binary heap. If segmented is true the entries
+     *  are kept in a SegmentedAList, which grows in chunks without copying
+     *  and suits heaps of many millions of entries; otherwise in an AList
+     *  with capacity 10. */
+    public Heap(boolean segmented) {
+        this(2, segmented);
+    }
+
+    /** Constructor: an empty heap in which each node has up to arity
+     *  children, stored as described for Heap(boolean segmented).
+     *  @throws IllegalArgumentException if arity < 2 */
+    public Heap(int arity, boolean segmented) {
+        if (arity < 2) throw new IllegalArgumentException("Arity must be at least 2.");
+        this.arity = arity;
+        c = segmented ? new SegmentedAList<Entry>() : new AList<Entry>(10);
+        map = new ObjectIntMap<V>(16, -1);
+    }
+
+    /** Constructor: a binary heap holding values[i] with priority
+     *  priorities[i] for each i, built in linear time as by addAll.
+     *  @throws IllegalArgumentException if the arrays differ in length or
+     *  values contains a duplicate. */
+    public Heap(V[] values, P[] priorities) {
+        this(2, false);
+        addAll(values, priorities);
     }
 
     /** An Entry contains a value and a priority. */
@@ -70,41 +117,92 @@ public final class Heap<V, P extends Comparable<P>> {
      *  In Phase 3 only:
      *  @throws IllegalArgumentException if v is already in the heap.*/
     public void add(V v, P p) throws IllegalArgumentException {
-        if (map.containsKey(v)) throw new IllegalArgumentException();  
+        // claims v's index with a single lookup, failing if v is present
+        if (map.putIntIfAbsent(v, c.size()) != map.getMissingValue()) {
+            throw new IllegalArgumentException();
+        }
         Entry entry = new Entry(v, p);
         c.append(entry);
-        map.put(v, c.size() - 1);
         bubbleUp(c.size() - 1);
     }
 
+    /** Add values[i] with priority priorities[i] for each i. When the batch
+     *  is at least as large as the heap, the entries are appended and the
+     *  whole heap is rebuilt bottom-up (Floyd's heapify) in time linear in
+     *  its final size, instead of sifting each entry up; smaller batches
+     *  are added one at a time. Either way the map is resized once and
+     *  each value's index is recorded as it is appended.
+     *  Precondition: no priority is null.
+     *  @throws IllegalArgumentException if the arrays differ in length or a
+     *  value is already in the heap or appears twice in values; the heap
+     *  is then unchanged. */
+    public void addAll(V[] values, P[] priorities) throws IllegalArgumentException {
+        if (values.length != priorities.length) {
+            throw new IllegalArgumentException("Arrays differ in length.");
+        }
+        int start = c.size();
+        map.ensureCapacity(start + values.length);
+        // claim every index first so that a duplicate leaves the heap as it was
+        for (int i = 0; i < values.length; i++) {
+            if (map.putIntIfAbsent(values[i], start + i) != map.getMissingValue()) {
+                for (int j = 0; j < i; j++) {
+                    map.removeInt(values[j]);
+                }
+                throw new IllegalArgumentException();
+            }
+        }
+        c.growIfNeeded(start + values.length);
+        boolean rebuild = values.length >= start;
+        for (int i = 0; i < values.length; i++) {
+            c.append(new Entry(values[i], priorities[i]));
+            if (!rebuild) {
+                bubbleUp(start + i);
+            }
+        }
+        if (rebuild && c.size() > 1) {
+            // sift down every node that has a child, deepest first
+            for (int k = (c.size() - 2) / arity; k >= 0; k--) {
+                bubbleDown(k);
+            }
+        }
+    }
+
     /** Return the number of values in this heap.
      *  This operation takes constant time. */
     public int size() {
         return c.size();
     }
 
-    /** Swap c[h] and c[k].
-     *  precondition: h and k are >= 0 and < c.size() */
-    protected void swap(int h, int k) {
-        Entry temp = c.get(h);
-        c.put(h, c.get(k));
-        c.put(k, temp);
-        map.put(c.get(h).value, h);
-        map.put(c.get(k).value, k);
-    }
-
     /** Bubble c[k] up in heap to its right place.
      *  Precondition: Priority of every c[i] >= its parent's priority
      *                except perhaps for c[k] */
     protected void bubbleUp(int k) {
+        Entry entry = c.get(k);
+        int hole = siftUp(k, entry.priority);
+        if (hole != k) {
+            place(hole, entry);
+        }
+    }
+
+    /* Move each ancestor of the hole at k whose priority exceeds p down into
+     * the hole, and return the hole's final position. */
+    private int siftUp(int k, P p) {
         while (k > 0) {
-            int parent = (k - 1) / 2;
-            if (c.get(k).priority.compareTo(c.get(parent).priority) >= 0) {
+            int parent = (k - 1) / arity;
+            Entry above = c.get(parent);
+            if (p.compareTo(above.priority) >= 0) {
                 break;
             }
-            swap(k, parent);
+            place(k, above);
             k = parent;
         }
+        return k;
+    }
+
+    /* write entry at c[k] and record its index in map */
+    private void place(int k, Entry entry) {
+        c.put(k, entry);
+        map.putInt(entry.value, k);
     }
 
     /** Return the value of this heap with lowest priority. Do not
@@ -116,6 +214,14 @@ public final class Heap<V, P extends Comparable<P>> {
         return c.get(0).value;
     }
 
+    /** Return the lowest priority in this heap, that of peek(). Do not
+     *  change the heap. This operation takes constant time.
+     *  @throws NoSuchElementException if the heap is empty. */
+    public P peekPriority() throws NoSuchElementException {
+        if (c.size() == 0) throw new NoSuchElementException("Heap is empty.");
+        return c.get(0).priority;
+    }
+
     /** Remove and return the element of this heap with lowest priority.
      *  The expected time is logarithmic and the worst-case time is linear
      *  in the size of the heap.
@@ -123,28 +229,92 @@ public final class Heap<V, P extends Comparable<P>> {
     public V poll() throws NoSuchElementException {
         // if AList length is 0 throw new
         if (c.size() == 0) throw new NoSuchElementException("Heap is empty.");
-        swap(0, c.size() - 1);
-        Entry minEntry = c.pop();
-        map.remove(minEntry.value);
-        bubbleDown(0);
+        Entry minEntry = c.get(0);
+        Entry last = c.pop();
+        map.removeInt(minEntry.value);
+        if (c.size() > 0) {
+            // the last entry fills the root's hole and sinks from there
+            place(siftDown(0, last.priority), last);
+        }
         return minEntry.value;
     }
 
+    /** Remove v from the heap and return true, or return false if v is not
+     *  in the heap. The last entry fills v's place and is sifted up or down
+     *  from there.
+     *  The expected time is logarithmic and the worst-case time is linear
+     *  in the size of the heap. */
+    public boolean remove(V v) {
+        int index = map.removeInt(v);
+        if (index < 0) {
+            return false;
+        }
+        Entry removed = c.get(index);
+        Entry last = c.pop();
+        if (index < c.size()) {
+            int hole = last.priority.compareTo(removed.priority) < 0
+                    ? siftUp(index, last.priority) : siftDown(index, last.priority);
+            place(hole, last);
+        }
+        return true;
+    }
+
+    /** Remove every value, writing them to buffer[0], buffer[1], ... from
+     *  smallest priority to largest, and return how many there were.
+     *  @throws IllegalArgumentException if buffer is smaller than the heap */
+    public int drainSorted(V[] buffer) throws IllegalArgumentException {
+        int n = c.size();
+        if (n > buffer.length) {
+            throw new IllegalArgumentException("Buffer is smaller than the heap.");
+        }
+        for (int i = 0; i < n; i++) {
+            buffer[i] = poll();
+        }
+        return n;
+    }
+
+    /** Remove the (up to) k values with lowest priority, writing them to
+     *  buffer[0], buffer[1], ... in the order poll would return them.
+     *  Return the number of values removed, which is k unless the heap runs
+     *  out first.
+     *  @throws IllegalArgumentException if k < 0 or k > buffer.length */
+    public int pollBatch(int k, V[] buffer) throws IllegalArgumentException {
+        if (k < 0 || k > buffer.length) {
+            throw new IllegalArgumentException("Batch size does not fit the buffer.");
+        }
+        int n = Math.min(k, c.size());
+        for (int i = 0; i < n; i++) {
+            buffer[i] = poll();
+        }
+        return n;
+    }
+
     /** Bubble c[k] down in heap until it finds the right place.
-     *  If there is a choice to bubble down to both the left and
-     *  right children (because their priorities are equal), choose
-     *  the right child.
+     *  If there is a choice between children with equal priorities,
+     *  choose the first of them.
      *  Precondition: Each c[i]'s priority <= its childrens' priorities
      *                except perhaps for c[k] */
     protected void bubbleDown(int k) {
-        while (2 * k + 1 < c.size()) {
+        Entry entry = c.get(k);
+        int hole = siftDown(k, entry.priority);
+        if (hole != k) {
+            place(hole, entry);
+        }
+    }
+
+    /* Move the smallest child of the hole at k up into the hole while its
+     * priority is less than p, and return the hole's final position. */
+    private int siftDown(int k, P p) {
+        while (arity * k + 1 < c.size()) {
             int child = smallerChild(k);
-            if (c.get(k).priority.compareTo(c.get(child).priority) <= 0) {
+            Entry below = c.get(child);
+            if (p.compareTo(below.priority) <= 0) {
                 break;
             }
-            swap(k, child);
+            place(k, below);
             k = child;
         }
+        return k;
     }
 
     /** Return true if the value v is in the heap, false otherwise.
@@ -159,8 +329,8 @@ public final class Heap<V, P extends Comparable<P>> {
      *  @throws IllegalArgumentException if v is not in the heap. */
     public void changePriority(V v, P p) throws IllegalArgumentException {
         // throw if v not in map
-        if (!map.containsKey(v)) throw new IllegalArgumentException("Value not found in heap.");
-        int index = map.get(v);
+        int index = map.getInt(v);
+        if (index < 0) throw new IllegalArgumentException("Value not found in heap.");
         P oldPriority = c.get(index).priority;
         c.get(index).priority = p;
         if (p.compareTo(oldPriority) < 0) {
@@ -171,17 +341,23 @@ public final class Heap<V, P extends Comparable<P>> {
     }
 
     // Recommended helper method spec:
-    /* Return the index of the child of k with smaller priority.
+    /* Return the index of the child of k with smallest priority, the first
+     * such child if several tie.
      * if only one child exists, return that child's index
      * Precondition: at least one child exists.*/
     private int smallerChild(int k) {
-        int left = 2 * k + 1;
-        int right = 2 * k + 2;
-        if (right >= c.size() || c.get(left).priority.compareTo(c.get(right).priority) <= 0) {
-            return left;
-        } else {
-            return right;
+        int first = arity * k + 1;
+        int end = Math.min(first + arity, c.size());
+        int best = first;
+        P bestPriority = c.get(first).priority;
+        for (int child = first + 1; child < end; child++) {
+            P p = c.get(child).priority;
+            if (p.compareTo(bestPriority) < 0) {
+                best = child;
+                bestPriority = p;
+            }
         }
+        return best;
     }
 
 }
@@ -0,0 +1,184 @@
+package heap;
+/*
+ * Author: Ben Fry-Holman
+ * Date: 7/25/2024
+ * Purpose: Heaps for A3
+ */
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/** A min-heap of distinct int ids with double keys, for algorithms such as
+ *  Dijkstra's that can number their values densely from 0. It keeps the
+ *  same binary tree as Heap but in parallel primitive arrays, so there are no
+ *  Entry objects, no boxed priorities and no hash lookups: the position of
+ *  each id is found in an int[] indexed by the id itself.
+ *
+ *  Once the arrays are large enough for every id in use, add, poll,
+ *  decreaseKey, contains and clear allocate nothing. They grow on demand, or
+ *  up front through ensureCapacity. */
+public class IndexedDoubleHeap {
+
+    /**
+     * Class Invariants:
+     *   1. ids[0..size-1] and keys[0..size-1] form a complete binary tree
+     *      with keys[(i-1)/2] <= keys[i] for every i > 0.
+     *   2. pos[ids[i]] == i for every i < size, and pos[id] == -1 for every
+     *      id that is not in the heap.
+     */
+    protected int[] ids; // ids[i] is the id at heap position i
+    protected double[] keys; // keys[i] is the key of ids[i]
+    protected int[] pos; // pos[id] is the heap position of id, or -1
+    protected int size; // number of ids in the heap
+
+    /** Constructor: an empty heap with room for ids 0..15. */
+    public IndexedDoubleHeap() {
+        this(16);
+    }
+
+    /** Constructor: an empty heap with room for ids 0..capacity-1. */
+    public IndexedDoubleHeap(int capacity) {
+        ids = new int[capacity];
+        keys = new double[capacity];
+        pos = new int[capacity];
+        Arrays.fill(pos, -1);
+        size = 0;
+    }
+
+    /** Make room for ids 0..capacity-1 so that adding them allocates
+     *  nothing. */
+    public void ensureCapacity(int capacity) {
+        if (capacity > pos.length) {
+            int old = pos.length;
+            int cap = Math.max(capacity, old * 2);
+            ids = Arrays.copyOf(ids, cap);
+            keys = Arrays.copyOf(keys, cap);
+            pos = Arrays.copyOf(pos, cap);
+            Arrays.fill(pos, old, cap, -1);
+        }
+    }
+
+    /** Return the number of ids in this heap.
+     *  This operation takes constant time. */
+    public int size() {
+        return size;
+    }
+
+    /** Return true if id is in the heap, false otherwise.
+     *  This operation takes constant time. */
+    public boolean contains(int id) {
+        return id >= 0 && id < pos.length && pos[id] >= 0;
+    }
+
+    /** Return the key of id.
+     *  @throws IllegalArgumentException if id is not in the heap. */
+    public double getKey(int id) {
+        if (!contains(id)) throw new IllegalArgumentException("Id not found in heap.");
+        return keys[pos[id]];
+    }
+
+    /** Add id with the given key to the heap. Runtime: O(log size).
+     *  @throws IllegalArgumentException if id is negative or already in the
+     *  heap. */
+    public void add(int id, double key) {
+        if (id < 0) throw new IllegalArgumentException("Id cannot be negative.");
+        ensureCapacity(id + 1);
+        if (pos[id] >= 0) throw new IllegalArgumentException();
+        siftUp(size++, id, key);
+    }
+
+    /** Return the id with the lowest key without changing the heap.
+     *  @throws NoSuchElementException if the heap is empty. */
+    public int peek() {
+        if (size == 0) throw new NoSuchElementException("Heap is empty.");
+        return ids[0];
+    }
+
+    /** Return the lowest key in the heap without changing it.
+     *  @throws NoSuchElementException if the heap is empty. */
+    public double peekKey() {
+        if (size == 0) throw new NoSuchElementException("Heap is empty.");
+        return keys[0];
+    }
+
+    /** Remove and return the id with the lowest key. Runtime: O(log size).
+     *  @throws NoSuchElementException if the heap is empty. */
+    public int poll() {
+        if (size == 0) throw new NoSuchElementException("Heap is empty.");
+        int min = ids[0];
+        pos[min] = -1;
+        size--;
+        if (size > 0) {
+            siftDown(0, ids[size], keys[size]);
+        }
+        return min;
+    }
+
+    /** Lower the key of id to key. Runtime: O(log size).
+     *  @throws IllegalArgumentException if id is not in the heap or key is
+     *  greater than its current key. */
+    public void decreaseKey(int id, double key) {
+        if (!contains(id)) throw new IllegalArgumentException("Id not found in heap.");
+        int i = pos[id];
+        if (key > keys[i]) throw new IllegalArgumentException("Key cannot increase.");
+        siftUp(i, id, key);
+    }
+
+    /** Remove every id from the heap, keeping its capacity.
+     *  Runtime: O(size) */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            pos[ids[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /* Place id with key at position i or above: parents with larger keys
+     * move down into the hole, and id is written once where the hole stops.
+     * Precondition: position i is free to overwrite. */
+    private void siftUp(int i, int id, double key) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (key >= keys[parent]) {
+                break;
+            }
+            move(parent, i);
+            i = parent;
+        }
+        set(i, id, key);
+    }
+
+    /* Place id with key at position i or below: the smaller child moves up
+     * into the hole while its key is smaller than key; on equal keys the
+     * left child is preferred, as in Heap.
+     * Precondition: position i is free to overwrite. */
+    private void siftDown(int i, int id, double key) {
+        int half = size / 2; // positions below half have a child
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && keys[right] < keys[child]) {
+                child = right;
+            }
+            if (key <= keys[child]) {
+                break;
+            }
+            move(child, i);
+            i = child;
+        }
+        set(i, id, key);
+    }
+
+    /* copy the entry at position from to position to */
+    private void move(int from, int to) {
+        int id = ids[from];
+        ids[to] = id;
+        keys[to] = keys[from];
+        pos[id] = to;
+    }
+
+    private void set(int i, int id, double key) {
+        ids[i] = id;
+        keys[i] = key;
+        pos[id] = i;
+    }
+}
@@ -0,0 +1,170 @@
+package heap;
+
+//Ben Fry-Holman
+//11/18/2024
+//Array List lab
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/** An AList of ints stored in an int[], so elements are never boxed.
+* Besides the AList operations it has bulk appends, explicit capacity
+* control, unchecked accessors for hot loops that have already checked their
+* indexes, and a growth factor chosen at construction. */
+public class IntAList {
+
+  /** the growth factor used when none is given */
+  public static final double DEFAULT_GROWTH = 2.0;
+
+  protected int size; // number of elements in the IntAList
+  protected int[] a; // the backing array storage
+  protected final double growth; // capacity multiplier when a is full
+
+  public int size() {
+    return size;
+  }
+
+  protected int getCap() {
+    return a.length;
+  }
+
+  /** Creates an IntAList with a default capacity of 8 */
+  public IntAList() {
+    this(8);
+  }
+
+  /** Creates an IntAList with the given capacity */
+  public IntAList(int capacity) {
+    this(capacity, DEFAULT_GROWTH);
+  }
+
+  /** Creates an IntAList with the given capacity that multiplies its
+  * capacity by growth whenever it fills up.
+  * @throws IllegalArgumentException if capacity < 0 or growth <= 1 */
+  public IntAList(int capacity, double growth) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Capacity cannot be negative.");
+    }
+    if (!(growth > 1)) {
+      throw new IllegalArgumentException("Growth factor must exceed 1.");
+    }
+    a = new int[capacity];
+    size = 0;
+    this.growth = growth;
+  }
+
+  /* Grows a by the growth factor (or more, if that is not enough) if newSize
+  * exceeds a's capacity. Does nothing if newSize <= a.length. This does
+  * *not* change the IntAList's size. */
+  protected void growIfNeeded(int newSize) {
+    if (newSize > a.length) {
+      long grown = (long) (a.length * growth) + 1;
+      int cap = (int) Math.min(Math.max(grown, newSize), Integer.MAX_VALUE - 8);
+      a = Arrays.copyOf(a, cap);
+    }
+  }
+
+  /** Makes the capacity at least minCapacity, so that the list can hold that
+  * many elements without growing again. Does not change the size. */
+  public void ensureCapacity(int minCapacity) {
+    if (minCapacity > a.length) {
+      a = Arrays.copyOf(a, minCapacity);
+    }
+  }
+
+  /** Shrinks the capacity to the current size, releasing unused storage */
+  public void trimToSize() {
+    if (size < a.length) {
+      a = Arrays.copyOf(a, size);
+    }
+  }
+
+  /** Resizes the IntAList.
+  *  this *does* modify the size, and may modify the capacity if newsize
+  *  exceeds capacity. New elements are 0. */
+  public void resize(int newsize) {
+    growIfNeeded(newsize);
+    if (newsize > size) {
+      Arrays.fill(a, size, newsize, 0);
+    }
+    size = newsize;
+  }
+
+  /** Gets element i from IntAList.
+  * @throws ArrayIndexOutOfBoundsException if 0 <= i < size does not hold */
+  public int get(int i) {
+    if (i < 0 || i >= size) {
+      throw new ArrayIndexOutOfBoundsException();
+    }
+    return a[i];
+  }
+
+  /** Gets element i without checking it against size. The caller must
+  * guarantee 0 <= i < size; an index past size returns a stale value. */
+  public int getUnchecked(int i) {
+    return a[i];
+  }
+
+  /** Sets the ith element of the list to value.
+  * @throws ArrayIndexOutOfBoundsException if 0 <= i < size does not hold */
+  public void put(int i, int value) {
+    if (i < 0 || i >= size) {
+      throw new ArrayIndexOutOfBoundsException();
+    }
+    a[i] = value;
+  }
+
+  /** Sets the ith element without checking it against size. The caller must
+  * guarantee 0 <= i < size. */
+  public void putUnchecked(int i, int value) {
+    a[i] = value;
+  }
+
+  /** Appends value at the end of the IntAList, increasing size by 1.
+  * Grows the array if needed to fit the appended value */
+  public void append(int value) {
+    if (size == a.length) {
+      growIfNeeded(size + 1);
+    }
+    a[size++] = value;
+  }
+
+  /** Appends every element of values, growing at most once */
+  public void appendAll(int[] values) {
+    addRange(values, 0, values.length);
+  }
+
+  /** Appends every element of other, growing at most once */
+  public void appendAll(IntAList other) {
+    addRange(other.a, 0, other.size);
+  }
+
+  /** Appends values[from..to-1], growing at most once.
+  * @throws ArrayIndexOutOfBoundsException if the range is not within values */
+  public void addRange(int[] values, int from, int to) {
+    if (from < 0 || to > values.length || from > to) {
+      throw new ArrayIndexOutOfBoundsException();
+    }
+    int count = to - from;
+    growIfNeeded(size + count);
+    System.arraycopy(values, from, a, size, count);
+    size += count;
+  }
+
+  /** Removes and returns the value at the end of the IntAList.
+  *  this *does* modify size and cannot modify capacity.
+  *  @throws NoSuchElementException if size == 0*/
+  public int pop() {
+    if (size == 0) {
+      throw new NoSuchElementException();
+    }
+    size--;
+    return a[size];
+  }
+
+  /** Returns a new array holding the list's elements */
+  public int[] toArray() {
+    return Arrays.copyOf(a, size);
+  }
+
+}
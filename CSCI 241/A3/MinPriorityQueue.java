@@ -0,0 +1,36 @@
+package heap;
+/*
+ * Author: Ben Fry-Holman
+ * Date: 7/25/2024
+ * Purpose: Heaps for A3
+ */
+import java.util.NoSuchElementException;
+
+/** A min-priority queue of distinct values of type V with priorities of
+ *  type P: poll and peek return the value with the smallest priority.
+ *  Implemented by Heap and PairingHeap, which trade off differently between
+ *  poll and changePriority. */
+public interface MinPriorityQueue<V, P extends Comparable<P>> {
+
+    /** Add v with priority p. Precondition: p is not null.
+     *  @throws IllegalArgumentException if v is already in the queue. */
+    void add(V v, P p) throws IllegalArgumentException;
+
+    /** Remove and return the value with lowest priority.
+     *  @throws NoSuchElementException if the queue is empty. */
+    V poll() throws NoSuchElementException;
+
+    /** Return the value with lowest priority without removing it.
+     *  @throws NoSuchElementException if the queue is empty. */
+    V peek() throws NoSuchElementException;
+
+    /** Return true if v is in the queue, false otherwise. */
+    boolean contains(V v);
+
+    /** Change the priority of value v to p.
+     *  @throws IllegalArgumentException if v is not in the queue. */
+    void changePriority(V v, P p) throws IllegalArgumentException;
+
+    /** Return the number of values in the queue. */
+    int size();
+}
@@ -0,0 +1,267 @@
+package heap;
+/*
+ * Author: Ben Fry-Holman
+ * Date: 7/25/2024
+ * Purpose: Heaps for A3
+ */
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/** A relaxed min-priority queue of distinct values that many threads can
+ *  use at once, for parallel shortest-path and best-first searches that can
+ *  tolerate processing an item slightly out of order.
+ *
+ *  The queue is split into c * p sequential Heaps (c per expected thread),
+ *  each guarded by its own lock. add puts the value in a random heap. poll
+ *  samples two random heaps, reads their minimum priorities without locking,
+ *  and removes the minimum of the better one. A thread that finds a lock
+ *  taken never waits; it samples again. poll therefore returns a value whose
+ *  priority is close to, but not always, the smallest in the queue; peek is
+ *  relaxed in the same way. Each heap's minimum priority is published in a
+ *  volatile field after every change so that sampling takes no locks.
+ *
+ *  Values are located through a ConcurrentHashTable from value to heap,
+ *  which keeps them distinct across heaps and lets contains and
+ *  changePriority work exactly as in Heap.
+ *
+ *  Counters report throughput (adds, polls, and lock attempts that failed)
+ *  and, if enabled with setQualitySampling, quality: every n-th poll scans
+ *  all heaps and counts an inversion if some other heap held a strictly
+ *  smaller priority than the one polled. */
+public class MultiQueue<V, P extends Comparable<P>> implements MinPriorityQueue<V, P> {
+
+    /** One of the internal heaps, its lock, and its published minimum. */
+    private static class Shard<V, P extends Comparable<P>> {
+        final Heap<V, P> heap = new Heap<V, P>();
+        final ReentrantLock lock = new ReentrantLock();
+        volatile P top; // heap's lowest priority, or null if it is empty
+
+        /* republish top; called with lock held after changing heap */
+        void publish() {
+            top = heap.size() == 0 ? null : heap.peekPriority();
+        }
+    }
+
+    private final Shard<V, P>[] shards;
+    private final ConcurrentHashTable<V, Shard<V, P>> index; // the shard of each value
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final LongAdder adds = new LongAdder();
+    private final LongAdder polls = new LongAdder();
+    private final LongAdder lockFailures = new LongAdder(); // tryLocks that failed
+    private final LongAdder qualitySamples = new LongAdder(); // polls checked
+    private final LongAdder inversions = new LongAdder(); // checked polls not minimal
+    private volatile int qualityEvery; // check every n-th poll, 0 for never
+
+    /** Constructor: a queue for the given number of threads with c heaps
+     *  per thread (c = 2 is typical; more heaps mean less contention and
+     *  a looser order).
+     *  @throws IllegalArgumentException if threads or c is less than 1 */
+    @SuppressWarnings("unchecked")
+    public MultiQueue(int threads, int c) {
+        if (threads < 1 || c < 1) {
+            throw new IllegalArgumentException("Need at least one thread and one heap per thread.");
+        }
+        int count = Math.max(2, threads * c);
+        shards = (Shard<V, P>[]) new Shard<?, ?>[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard<V, P>();
+        }
+        index = new ConcurrentHashTable<V, Shard<V, P>>(64, Math.max(16, count));
+    }
+
+    /** Add v with priority p to a random heap. Precondition: p is not null.
+     *  @throws IllegalArgumentException if v is already in the queue. */
+    public void add(V v, P p) throws IllegalArgumentException {
+        Shard<V, P> shard = lockRandom();
+        try {
+            if (index.putIfAbsent(v, shard) != null) {
+                throw new IllegalArgumentException();
+            }
+            shard.heap.add(v, p);
+            shard.publish();
+            // count it before unlocking, so no poll of v can be counted first
+            size.incrementAndGet();
+        } finally {
+            shard.lock.unlock();
+        }
+        adds.increment();
+    }
+
+    /** Remove and return a value with low priority: the minimum of the
+     *  better of two randomly chosen heaps.
+     *  @throws NoSuchElementException if every heap is empty. */
+    public V poll() throws NoSuchElementException {
+        while (true) {
+            Shard<V, P> shard = sampleBest();
+            if (!shard.lock.tryLock()) {
+                lockFailures.increment();
+                continue;
+            }
+            V v;
+            P p;
+            try {
+                // the published top may be stale; recheck under the lock
+                if (shard.heap.size() == 0) {
+                    continue;
+                }
+                p = shard.heap.peekPriority();
+                v = shard.heap.poll();
+                index.remove(v);
+                shard.publish();
+                size.decrementAndGet();
+            } finally {
+                shard.lock.unlock();
+            }
+            polls.increment();
+            int every = qualityEvery;
+            if (every > 0 && ThreadLocalRandom.current().nextInt(every) == 0) {
+                checkQuality(p);
+            }
+            return v;
+        }
+    }
+
+    /** Return a value with low priority, chosen as poll would, without
+     *  removing it. Another thread may remove it at any time.
+     *  @throws NoSuchElementException if every heap is empty. */
+    public V peek() throws NoSuchElementException {
+        while (true) {
+            Shard<V, P> shard = sampleBest();
+            if (!shard.lock.tryLock()) {
+                lockFailures.increment();
+                continue;
+            }
+            try {
+                if (shard.heap.size() > 0) {
+                    return shard.heap.peek();
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+
+    /** Return true if the value v is in the queue, false otherwise. */
+    public boolean contains(V v) {
+        return index.containsKey(v);
+    }
+
+    /** Change the priority of value v to p.
+     *  @throws IllegalArgumentException if v is not in the queue. */
+    public void changePriority(V v, P p) throws IllegalArgumentException {
+        Shard<V, P> shard = index.get(v);
+        if (shard == null) throw new IllegalArgumentException("Value not found in heap.");
+        shard.lock.lock();
+        try {
+            // v may have been polled since it was looked up
+            if (!shard.heap.contains(v)) {
+                throw new IllegalArgumentException("Value not found in heap.");
+            }
+            shard.heap.changePriority(v, p);
+            shard.publish();
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /** Return the number of values in the queue. */
+    public int size() {
+        return size.get();
+    }
+
+    /** Check the quality of one in every n polls, or of none if n is 0.
+     *  Each check scans every heap.
+     *  @throws IllegalArgumentException if n < 0 */
+    public void setQualitySampling(int n) {
+        if (n < 0) throw new IllegalArgumentException("Sampling rate cannot be negative.");
+        qualityEvery = n;
+    }
+
+    /** Return the number of values added */
+    public long getAdds() {
+        return adds.sum();
+    }
+
+    /** Return the number of values polled */
+    public long getPolls() {
+        return polls.sum();
+    }
+
+    /** Return the number of times a thread found a heap locked and sampled
+     *  again */
+    public long getLockFailures() {
+        return lockFailures.sum();
+    }
+
+    /** Return the number of polls whose quality was checked */
+    public long getQualitySamples() {
+        return qualitySamples.sum();
+    }
+
+    /** Return the number of checked polls that did not take the smallest
+     *  priority in the queue */
+    public long getInversions() {
+        return inversions.sum();
+    }
+
+    /** Return a summary of the counters */
+    public String toString() {
+        return "size " + size() + " heaps " + shards.length + " adds " + getAdds()
+                + " polls " + getPolls() + " lock failures " + getLockFailures()
+                + " inversions " + getInversions() + "/" + getQualitySamples();
+    }
+
+    /* lock and return a random shard, moving on instead of waiting when a
+     * shard is taken */
+    private Shard<V, P> lockRandom() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            Shard<V, P> shard = shards[random.nextInt(shards.length)];
+            if (shard.lock.tryLock()) {
+                return shard;
+            }
+            lockFailures.increment();
+        }
+    }
+
+    /* Return the better of two random shards by published top. If both
+     * look empty, return any shard that does not.
+     * @throws NoSuchElementException if every shard looks empty */
+    private Shard<V, P> sampleBest() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Shard<V, P> a = shards[random.nextInt(shards.length)];
+        Shard<V, P> b = shards[random.nextInt(shards.length)];
+        P pa = a.top;
+        P pb = b.top;
+        if (pa != null && (pb == null || pa.compareTo(pb) <= 0)) {
+            return a;
+        }
+        if (pb != null) {
+            return b;
+        }
+        int start = random.nextInt(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            Shard<V, P> shard = shards[(start + i) % shards.length];
+            if (shard.top != null) {
+                return shard;
+            }
+        }
+        throw new NoSuchElementException("Queue is empty.");
+    }
+
+    /* count an inversion if some shard's published top is below p */
+    private void checkQuality(P p) {
+        qualitySamples.increment();
+        for (Shard<V, P> shard : shards) {
+            P top = shard.top;
+            if (top != null && top.compareTo(p) < 0) {
+                inversions.increment();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package heap;
+/*
+ * Author: Ben Fry-Holman
+ * Date: 7/25/2024
+ * Purpose: Heaps for A3
+ */
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Measures multithreaded throughput of MultiQueue against a Heap guarded by
+ * a single global lock, and how often MultiQueue polls out of order. Each
+ * thread repeatedly polls a value and adds a new one whose priority drifts
+ * upward as the run goes on, roughly as in a shortest-path search, so the
+ * queue keeps its starting size. Usage:
+ *   java heap.MultiQueueBenchmark [maxThreads] [size] [millis]
+ * Defaults: 16 threads, 100000 values, 1000 ms per run. */
+public class MultiQueueBenchmark {
+
+    // checks one in this many MultiQueue polls for an inversion
+    private static final int QUALITY_EVERY = 64;
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+        long millis = args.length > 2 ? Long.parseLong(args[2]) : 1000;
+
+        System.out.println("threads\tsingle-lock(Mops/s)\tmultiqueue(Mops/s)\tinversions(%)");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            Heap<Long, Integer> heap = new Heap<Long, Integer>();
+            Object lock = new Object();
+            MinPriorityQueue<Long, Integer> locked = new MinPriorityQueue<Long, Integer>() {
+                public void add(Long v, Integer p) {
+                    synchronized (lock) {
+                        heap.add(v, p);
+                    }
+                }
+
+                public Long poll() {
+                    synchronized (lock) {
+                        return heap.poll();
+                    }
+                }
+
+                public Long peek() {
+                    synchronized (lock) {
+                        return heap.peek();
+                    }
+                }
+
+                public boolean contains(Long v) {
+                    synchronized (lock) {
+                        return heap.contains(v);
+                    }
+                }
+
+                public void changePriority(Long v, Integer p) {
+                    synchronized (lock) {
+                        heap.changePriority(v, p);
+                    }
+                }
+
+                public int size() {
+                    synchronized (lock) {
+                        return heap.size();
+                    }
+                }
+            };
+
+            MultiQueue<Long, Integer> multi = new MultiQueue<Long, Integer>(threads, 2);
+            multi.setQualitySampling(QUALITY_EVERY);
+
+            double lockedRate = run(locked, threads, size, millis);
+            double multiRate = run(multi, threads, size, millis);
+            double inversions = 100.0 * multi.getInversions() / Math.max(1, multi.getQualitySamples());
+            System.out.printf("%d\t%.2f\t\t\t%.2f\t\t\t%.1f%n", threads, lockedRate, multiRate, inversions);
+        }
+    }
+
+    /* fill queue with size values, run the poll-then-add workload on it with
+     * the given number of threads, and return the combined throughput in
+     * millions of operations (a poll or an add) per second */
+    private static double run(MinPriorityQueue<Long, Integer> queue, int threads, int size, long millis)
+            throws InterruptedException {
+        // values are distinct across threads: thread t adds only values equal to t mod threads
+        Random fill = new Random(241);
+        for (int i = 0; i < size; i++) {
+            queue.add((long) i * threads, fill.nextInt(size));
+        }
+        AtomicBoolean stop = new AtomicBoolean();
+        LongAdder ops = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            long first = (long) size * threads + t;
+            long seed = t;
+            int step = threads;
+            workers[t] = new Thread(() -> {
+                Random random = new Random(seed);
+                long next = first;
+                long done = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (!stop.get()) {
+                    for (int i = 0; i < 1000; i++) {
+                        queue.poll();
+                        queue.add(next, random.nextInt(size) + (int) (done / 2));
+                        next += step;
+                    }
+                    done += 2000;
+                }
+                ops.add(done);
+            });
+            workers[t].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        Thread.sleep(millis);
+        stop.set(true);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        return ops.sum() / seconds / 1e6;
+    }
+}
@@ -0,0 +1,85 @@
+package heap;
+/*
+ * Author: Ben Fry-Holman
+ * Date: 7/25/2024
+ * Purpose: Heaps for A3
+ */
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/** Concurrency checks for MultiQueue. Each check throws an
+ *  IllegalStateException describing the first thing it finds wrong. Usage:
+ *    java heap.MultiQueueChecks */
+public class MultiQueueChecks {
+
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 100000;
+
+    public static void main(String[] args) throws InterruptedException {
+        everyValuePolledOnce();
+        System.out.println("All checks passed.");
+    }
+
+    /* Threads that add and poll at the same time must between them poll
+     * every added value exactly once, and size must never go negative. */
+    private static void everyValuePolledOnce() throws InterruptedException {
+        MultiQueue<Integer, Integer> queue = new MultiQueue<Integer, Integer>(THREADS, 2);
+        AtomicIntegerArray polled = new AtomicIntegerArray(THREADS * PER_THREAD);
+        int[] negativeSizes = new int[THREADS];
+        Thread[] workers = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            int first = t * PER_THREAD;
+            int worker = t;
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < PER_THREAD; i++) {
+                    queue.add(first + i, (i * 31 + worker) % 1000);
+                    // poll about every other add, so the queue stays small but nonempty
+                    if ((i & 1) == 1) {
+                        pollInto(queue, polled);
+                    }
+                    if (queue.size() < 0) {
+                        negativeSizes[worker]++;
+                    }
+                    if ((i & 15) == 0) {
+                        try {
+                            queue.peek();
+                        } catch (NoSuchElementException e) {
+                            // another thread emptied the queue
+                        }
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        while (queue.size() > 0) {
+            pollInto(queue, polled);
+        }
+
+        for (int t = 0; t < THREADS; t++) {
+            check(negativeSizes[t] == 0, "thread " + t + " saw a negative size " + negativeSizes[t] + " times");
+        }
+        for (int v = 0; v < polled.length(); v++) {
+            check(polled.get(v) == 1, "value " + v + " was polled " + polled.get(v) + " times");
+        }
+        check(queue.getAdds() == polled.length(), "counted " + queue.getAdds() + " adds");
+        check(queue.getPolls() == polled.length(), "counted " + queue.getPolls() + " polls");
+    }
+
+    /* poll one value, if the queue has any, and count it in polled */
+    private static void pollInto(MultiQueue<Integer, Integer> queue, AtomicIntegerArray polled) {
+        try {
+            polled.incrementAndGet(queue.poll());
+        } catch (NoSuchElementException e) {
+            // another thread emptied the queue
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package heap;
+
+/*
+ * Author: Ben Fry-Holman
+ * Date: 7/25/2024
+ * Purpose: Hashes for A3
+ */
+
+/** A map from objects to primitive ints. Values are stored unboxed in an
+ * int[], so once the table has grown to its working size, getInt, putInt and
+ * removeInt allocate nothing. Absent keys are reported with a sentinel value
+ * chosen at construction instead of null.
+ *
+ * Keys, values and hash codes live in three parallel arrays, and collisions
+ * are resolved by Robin Hood linear probing: an entry that is far from its
+ * home slot may displace one that is closer to its own, which keeps probe
+ * sequences short and lets an unsuccessful lookup stop early. Removal shifts
+ * the following entries back instead of leaving tombstones. The capacity is
+ * always a power of two and doubles when the load factor exceeds 0.8. */
+public class ObjectIntMap<K> {
+
+    private static final double MAX_LOAD = 0.8;
+
+    protected Object[] keys; // keys[i] is the key stored in slot i
+    protected int[] vals; // vals[i] is the value mapped to keys[i]
+    protected int[] hashes; // spread hash of keys[i], or 0 if slot i is empty
+    protected int mask; // keys.length - 1; keys.length is a power of two
+    protected int size; // how many items currently in the map
+    protected final int missing; // returned when a key has no mapping
+
+    /** constructor: initialize with default capacity 16 and sentinel -1 */
+    public ObjectIntMap() {
+        this(16, -1);
+    }
+
+    /** constructor: initialize with room for at least the given capacity;
+     * missing is the value returned for keys that are not in the map */
+    public ObjectIntMap(int capacity, int missing) {
+        int cap = 2;
+        while (cap < capacity) {
+            cap *= 2;
+        }
+        allocate(cap);
+        this.missing = missing;
+    }
+
+    /** Return the size of the map (the number of key-value mappings in the
+     * table) */
+    public int getSize() {
+        return size;
+    }
+
+    /** Return the current capacity of the table (the number of slots) */
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    /** Return the sentinel value that stands for "no mapping" */
+    public int getMissingValue() {
+        return missing;
+    }
+
+    /** Return the value to which the specified key is mapped, or the missing
+     * value if this map contains no mapping for the key.
+     * Runtime: average case O(1); worst case O(size) */
+    public int getInt(K key) {
+        int slot = find(key);
+        return slot < 0 ? missing : vals[slot];
+    }
+
+    /** Return true if this map contains a mapping for the specified key.
+     *  Runtime: average case O(1); worst case O(size) */
+    public boolean containsKey(K key) {
+        return find(key) >= 0;
+    }
+
+    /** Associate the specified value with the specified key in this map. If
+     * the map previously contained a mapping for the key, the old value is
+     * replaced. Return the previous value associated with key, or the missing
+     * value if there was no mapping for key.
+     * Runtime: average case O(1); worst case O(size + capacity)*/
+    public int putInt(K key, int val) {
+        int h = hash(key);
+        int slot = h & mask;
+        int dist = 0;
+        while (hashes[slot] != 0) {
+            if (hashes[slot] == h && keys[slot].equals(key)) {
+                int oldValue = vals[slot];
+                vals[slot] = val;
+                return oldValue;
+            }
+            if (probeDistance(slot) < dist) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+            dist++;
+        }
+        if ((double) (size + 1) / keys.length > MAX_LOAD) {
+            grow();
+        }
+        insert(h, key, val);
+        size++;
+        return missing;
+    }
+
+    /** Associate val with key only if key has no mapping. Return the existing
+     * value if there was one (leaving it unchanged), or the missing value if
+     * val was inserted. Hashes key and probes its slots only once.
+     * Runtime: average case O(1); worst case O(size + capacity)*/
+    public int putIntIfAbsent(K key, int val) {
+        int h = hash(key);
+        int slot = h & mask;
+        int dist = 0;
+        while (hashes[slot] != 0) {
+            if (hashes[slot] == h && keys[slot].equals(key)) {
+                return vals[slot];
+            }
+            if (probeDistance(slot) < dist) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+            dist++;
+        }
+        if ((double) (size + 1) / keys.length > MAX_LOAD) {
+            grow();
+        }
+        insert(h, key, val);
+        size++;
+        return missing;
+    }
+
+    /** Remove the mapping for the specified key from this map if present.
+     *  Return the previous value associated with key, or the missing value if
+     *  there was no mapping for key.
+     *  Runtime: average case O(1); worst case O(size)*/
+    public int removeInt(K key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return missing;
+        }
+        int oldValue = vals[slot];
+        int next = (slot + 1) & mask;
+        while (hashes[next] != 0 && probeDistance(next) > 0) {
+            hashes[slot] = hashes[next];
+            keys[slot] = keys[next];
+            vals[slot] = vals[next];
+            slot = next;
+            next = (next + 1) & mask;
+        }
+        hashes[slot] = 0;
+        keys[slot] = null;
+        size--;
+        return oldValue;
+    }
+
+    /* Return the slot holding key, or -1 if key is not in the table. */
+    private int find(K key) {
+        int h = hash(key);
+        int slot = h & mask;
+        int dist = 0;
+        while (hashes[slot] != 0) {
+            if (hashes[slot] == h && keys[slot].equals(key)) {
+                return slot;
+            }
+            if (probeDistance(slot) < dist) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+            dist++;
+        }
+        return -1;
+    }
+
+    /* Place an entry known not to be in the table, displacing entries that
+     * are closer to their home slot than the entry being carried.
+     * Precondition: there is at least one empty slot. */
+    private void insert(int h, Object key, int val) {
+        int slot = h & mask;
+        int dist = 0;
+        while (hashes[slot] != 0) {
+            int existing = probeDistance(slot);
+            if (existing < dist) {
+                int th = hashes[slot];
+                Object tk = keys[slot];
+                int tv = vals[slot];
+                hashes[slot] = h;
+                keys[slot] = key;
+                vals[slot] = val;
+                h = th;
+                key = tk;
+                val = tv;
+                dist = existing;
+            }
+            slot = (slot + 1) & mask;
+            dist++;
+        }
+        hashes[slot] = h;
+        keys[slot] = key;
+        vals[slot] = val;
+    }
+
+    /* Return how far the entry in slot is from its home slot. */
+    private int probeDistance(int slot) {
+        return (slot - (hashes[slot] & mask)) & mask;
+    }
+
+    /* Return a well-mixed, nonzero hash for key; 0 marks an empty slot. */
+    private static int hash(Object key) {
+        int h = HashTable.spread(key.hashCode());
+        return h == 0 ? 1 : h;
+    }
+
+    /** Make room for expectedSize mappings without further growth.
+     * Runtime: O(capacity) if the table grows, O(1) otherwise */
+    public void ensureCapacity(int expectedSize) {
+        int cap = keys.length;
+        while (expectedSize > cap * MAX_LOAD) {
+            cap *= 2;
+        }
+        if (cap > keys.length) {
+            rehash(cap);
+        }
+    }
+
+    /* double the capacity and reinsert every entry */
+    private void grow() {
+        rehash(keys.length * 2);
+    }
+
+    /* move every entry into new arrays of the given capacity, which must be
+     * a power of two large enough to hold them */
+    private void rehash(int capacity) {
+        int[] oldHashes = hashes;
+        Object[] oldKeys = keys;
+        int[] oldVals = vals;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldHashes[i] != 0) {
+                insert(oldHashes[i], oldKeys[i], oldVals[i]);
+            }
+        }
+    }
+
+    /* replace the storage arrays with empty arrays of the given capacity,
+     * which must be a power of two */
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        vals = new int[capacity];
+        hashes = new int[capacity];
+        mask = capacity - 1;
+    }
+}
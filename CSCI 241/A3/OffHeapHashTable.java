@@ -0,0 +1,448 @@
+package heap;
+
+/*
+ * Author: Ben Fry-Holman
+ * Date: 7/25/2024
+ * Purpose: Hashes for A3
+ */
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/** A hash table, with the same interface as HashTable, whose contents live
+ * outside the Java heap so that very large tables add almost nothing to
+ * garbage collection work.
+ *
+ * Keys and values are serialized with a Codec and appended as records to an
+ * arena of direct ByteBuffer chunks. A record is
+ *   [int keyLength][int valueLength][key bytes][value bytes]
+ * and is addressed by its chunk number and offset packed into a long. The
+ * index is an open-addressed, linearly probed table, also in a direct
+ * buffer, whose slots hold a record address and the hash of the record's key
+ * bytes. Keys are hashed and compared in serialized form, so a lookup never
+ * deserializes a key.
+ *
+ * Overwriting a value with one of the same serialized size rewrites it in
+ * place; otherwise, and on removal, the old record becomes garbage that
+ * compact() reclaims. close() releases the off-heap memory immediately; the
+ * table cannot be used afterwards. */
+public class OffHeapHashTable<K,V> implements AutoCloseable {
+
+    private static final double MAX_LOAD = 0.7;
+    private static final int SLOT_BYTES = 12; // long address + int hash
+    // the most slots one direct buffer can index; slot * SLOT_BYTES fits an int
+    private static final int MAX_CAPACITY = 1 << 27;
+    private static final int HEADER_BYTES = 8; // key length + value length
+
+    private final Codec<K> keyCodec;
+    private final Codec<V> valueCodec;
+    private final int chunkSize; // bytes per arena chunk
+
+    private ByteBuffer[] chunks; // the arena
+    private int chunkCount; // chunks[0..chunkCount-1] are in use
+    private int chunkUsed; // bytes used in the last chunk
+    private long garbage; // bytes of dead records in the arena
+
+    private ByteBuffer index; // slots of SLOT_BYTES; address 0 is empty
+    private int capacity; // number of slots, a power of two
+    private int size; // how many items currently in the map
+
+    private ByteBuffer keyScratch; // serialized form of the current key
+    private ByteBuffer valueScratch; // serialized form of the current value
+    private boolean closed;
+
+    /** constructor: room for expectedSize mappings before the index grows,
+     * with 16 MB arena chunks */
+    public OffHeapHashTable(Codec<K> keyCodec, Codec<V> valueCodec, int expectedSize) {
+        this(keyCodec, valueCodec, expectedSize, 1 << 24);
+    }
+
+    /** constructor: room for expectedSize mappings before the index grows,
+     * storing records in arena chunks of chunkSize bytes. A record larger
+     * than chunkSize gets a chunk of its own. */
+    public OffHeapHashTable(Codec<K> keyCodec, Codec<V> valueCodec, int expectedSize,
+            int chunkSize) {
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.chunkSize = chunkSize;
+        if (expectedSize > MAX_CAPACITY * MAX_LOAD) {
+            throw new IllegalArgumentException("Expected size is too large: " + expectedSize);
+        }
+        int cap = 16;
+        while (expectedSize > cap * MAX_LOAD) {
+            cap *= 2;
+        }
+        allocateIndex(cap);
+        chunks = new ByteBuffer[4];
+        keyScratch = ByteBuffer.allocate(64);
+        valueScratch = ByteBuffer.allocate(64);
+    }
+
+    /** Return the size of the map (the number of key-value mappings in the
+     * table) */
+    public int getSize() {
+        return size;
+    }
+
+    /** Return the current capacity of the table (the number of index
+     * slots) */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /** Return the number of off-heap bytes the table has allocated */
+    public long getOffHeapBytes() {
+        long bytes = (long) capacity * SLOT_BYTES;
+        for (int i = 0; i < chunkCount; i++) {
+            bytes += chunks[i].capacity();
+        }
+        return bytes;
+    }
+
+    /** Return the number of arena bytes held by dead records */
+    public long getGarbageBytes() {
+        return garbage;
+    }
+
+    /** Return the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key.
+     * Runtime: average case O(1); worst case O(size) */
+    public V get(K key) {
+        checkOpen();
+        int keyLength = serializeKey(key);
+        int slot = find(hashKey(keyLength), keyLength);
+        return slot < 0 ? null : readValue(address(slot));
+    }
+
+    /** Return true if this map contains a mapping for the specified key.
+     *  Runtime: average case O(1); worst case O(size) */
+    public boolean containsKey(K key) {
+        checkOpen();
+        int keyLength = serializeKey(key);
+        return find(hashKey(keyLength), keyLength) >= 0;
+    }
+
+    /** Associate the specified value with the specified key in this map. If
+     * the map previously contained a mapping for the key, the old value is
+     * replaced. Return the previous value associated with key, or null if
+     * there was no mapping for key. The index lives in one direct buffer, so
+     * a table holds at most about 94 million mappings; adding one more throws
+     * IllegalStateException.
+     * Precondition: val is not null.
+     * Runtime: average case O(1); worst case O(size + capacity)*/
+    public V put(K key, V val) {
+        if (val == null) throw new IllegalArgumentException("Value cannot be null.");
+        checkOpen();
+        int keyLength = serializeKey(key);
+        int valueLength = serializeValue(val);
+        int h = hashKey(keyLength);
+        int slot = find(h, keyLength);
+        if (slot >= 0) {
+            long address = address(slot);
+            V oldValue = readValue(address);
+            ByteBuffer chunk = chunks[chunkOf(address)];
+            int offset = offsetOf(address);
+            if (chunk.getInt(offset + 4) == valueLength) {
+                chunk.put(offset + HEADER_BYTES + keyLength, valueScratch.array(), 0,
+                        valueLength);
+            } else {
+                garbage += HEADER_BYTES + keyLength + chunk.getInt(offset + 4);
+                setSlot(slot, append(keyLength, valueLength), h);
+            }
+            return oldValue;
+        }
+        if (size + 1 > capacity * MAX_LOAD) {
+            if (capacity == MAX_CAPACITY) {
+                throw new IllegalStateException("Table is full: " + size + " mappings.");
+            }
+            allocateIndex(capacity * 2);
+        }
+        insertSlot(append(keyLength, valueLength), h);
+        size++;
+        return null;
+    }
+
+    /** Remove the mapping for the specified key from this map if present.
+     *  Return the previous value associated with key, or null if there was no
+     *  mapping for key.
+     *  Runtime: average case O(1); worst case O(size)*/
+    public V remove(K key) {
+        checkOpen();
+        int keyLength = serializeKey(key);
+        int slot = find(hashKey(keyLength), keyLength);
+        if (slot < 0) {
+            return null;
+        }
+        long address = address(slot);
+        V oldValue = readValue(address);
+        garbage += recordSize(address);
+        // backward-shift deletion for linear probing: move each following
+        // entry into the hole unless that would put it before its home slot
+        int mask = capacity - 1;
+        int hole = slot;
+        int j = slot;
+        while (true) {
+            j = (j + 1) & mask;
+            if (address(j) == 0) {
+                break;
+            }
+            int home = hashAt(j) & mask;
+            boolean movable = hole <= j ? (home <= hole || home > j)
+                    : (home <= hole && home > j);
+            if (movable) {
+                setSlot(hole, address(j), hashAt(j));
+                hole = j;
+            }
+        }
+        setSlot(hole, 0, 0);
+        size--;
+        return oldValue;
+    }
+
+    /** Copy every live record into a fresh arena and release the old one,
+     * reclaiming the space of overwritten and removed records.
+     * Runtime: O(size + capacity) */
+    public void compact() {
+        checkOpen();
+        ByteBuffer[] oldChunks = chunks;
+        int oldCount = chunkCount;
+        chunks = new ByteBuffer[4];
+        chunkCount = 0;
+        chunkUsed = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            long address = address(slot);
+            if (address != 0) {
+                ByteBuffer chunk = oldChunks[chunkOf(address)];
+                int offset = offsetOf(address);
+                int length = recordSize(chunk, offset);
+                long moved = reserve(length);
+                ByteBuffer target = chunks[chunkOf(moved)];
+                target.put(offsetOf(moved), chunk, offset, length);
+                setSlot(slot, moved, hashAt(slot));
+            }
+        }
+        for (int i = 0; i < oldCount; i++) {
+            free(oldChunks[i]);
+        }
+        garbage = 0;
+    }
+
+    /** Release the table's off-heap memory. Any later use of the table throws
+     * IllegalStateException, except the getters, which report an empty table
+     * holding no memory. */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (int i = 0; i < chunkCount; i++) {
+            free(chunks[i]);
+            chunks[i] = null;
+        }
+        free(index);
+        index = null;
+        chunkCount = 0;
+        chunkUsed = 0;
+        capacity = 0;
+        size = 0;
+        garbage = 0;
+    }
+
+    /* Return the slot whose record has the key serialized in keyScratch, or
+     * -1 if there is none. */
+    private int find(int h, int keyLength) {
+        int mask = capacity - 1;
+        int slot = h & mask;
+        long address;
+        while ((address = address(slot)) != 0) {
+            if (hashAt(slot) == h && keyMatches(address, keyLength)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /* put address and hash into the first empty slot of h's probe sequence */
+    private void insertSlot(long address, int h) {
+        int mask = capacity - 1;
+        int slot = h & mask;
+        while (address(slot) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        setSlot(slot, address, h);
+    }
+
+    /* return true if the key of the record at address equals the
+     * keyLength bytes in keyScratch */
+    private boolean keyMatches(long address, int keyLength) {
+        ByteBuffer chunk = chunks[chunkOf(address)];
+        int offset = offsetOf(address);
+        if (chunk.getInt(offset) != keyLength) {
+            return false;
+        }
+        byte[] key = keyScratch.array();
+        int start = offset + HEADER_BYTES;
+        for (int i = 0; i < keyLength; i++) {
+            if (chunk.get(start + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* append a record made of the serialized key and value; return its
+     * address */
+    private long append(int keyLength, int valueLength) {
+        long address = reserve(HEADER_BYTES + keyLength + valueLength);
+        ByteBuffer chunk = chunks[chunkOf(address)];
+        int offset = offsetOf(address);
+        chunk.putInt(offset, keyLength);
+        chunk.putInt(offset + 4, valueLength);
+        chunk.put(offset + HEADER_BYTES, keyScratch.array(), 0, keyLength);
+        chunk.put(offset + HEADER_BYTES + keyLength, valueScratch.array(), 0, valueLength);
+        return address;
+    }
+
+    /* reserve length bytes in the arena, starting a new chunk if the last
+     * one is too full; return the address of the reserved bytes */
+    private long reserve(int length) {
+        if (chunkCount == 0 || chunkUsed + length > chunks[chunkCount - 1].capacity()) {
+            if (chunkCount == chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunkCount * 2);
+            }
+            chunks[chunkCount++] = ByteBuffer.allocateDirect(Math.max(chunkSize, length));
+            chunkUsed = 0;
+        }
+        long address = ((long) (chunkCount - 1) << 32) | chunkUsed;
+        chunkUsed += length;
+        // slots store address + 1 so that 0 can mark an empty slot
+        return address + 1;
+    }
+
+    private V readValue(long address) {
+        ByteBuffer chunk = chunks[chunkOf(address)];
+        int offset = offsetOf(address);
+        int keyLength = chunk.getInt(offset);
+        return valueCodec.read(chunk, offset + HEADER_BYTES + keyLength,
+                chunk.getInt(offset + 4));
+    }
+
+    private int recordSize(long address) {
+        return recordSize(chunks[chunkOf(address)], offsetOf(address));
+    }
+
+    private static int recordSize(ByteBuffer chunk, int offset) {
+        return HEADER_BYTES + chunk.getInt(offset) + chunk.getInt(offset + 4);
+    }
+
+    private static int chunkOf(long address) {
+        return (int) ((address - 1) >>> 32);
+    }
+
+    private static int offsetOf(long address) {
+        return (int) (address - 1);
+    }
+
+    private long address(int slot) {
+        return index.getLong(slot * SLOT_BYTES);
+    }
+
+    private int hashAt(int slot) {
+        return index.getInt(slot * SLOT_BYTES + 8);
+    }
+
+    private void setSlot(int slot, long address, int h) {
+        index.putLong(slot * SLOT_BYTES, address);
+        index.putInt(slot * SLOT_BYTES + 8, h);
+    }
+
+    /* replace the index with an empty one of the given capacity and reinsert
+     * every record address; the records themselves do not move */
+    private void allocateIndex(int newCapacity) {
+        ByteBuffer oldIndex = index;
+        int oldCapacity = capacity;
+        index = ByteBuffer.allocateDirect(newCapacity * SLOT_BYTES);
+        capacity = newCapacity;
+        if (oldIndex != null) {
+            for (int slot = 0; slot < oldCapacity; slot++) {
+                long address = oldIndex.getLong(slot * SLOT_BYTES);
+                if (address != 0) {
+                    insertSlot(address, oldIndex.getInt(slot * SLOT_BYTES + 8));
+                }
+            }
+            free(oldIndex);
+        }
+    }
+
+    /* serialize key into keyScratch and return its length in bytes */
+    private int serializeKey(K key) {
+        int length = keyCodec.size(key);
+        if (length > keyScratch.capacity()) {
+            keyScratch = ByteBuffer.allocate(Math.max(length, keyScratch.capacity() * 2));
+        }
+        keyCodec.write(key, keyScratch, 0);
+        return length;
+    }
+
+    /* serialize val into valueScratch and return its length in bytes */
+    private int serializeValue(V val) {
+        int length = valueCodec.size(val);
+        if (length > valueScratch.capacity()) {
+            valueScratch = ByteBuffer.allocate(Math.max(length, valueScratch.capacity() * 2));
+        }
+        valueCodec.write(val, valueScratch, 0);
+        return length;
+    }
+
+    /* FNV-1a over the serialized key, then mixed by HashTable.spread */
+    private int hashKey(int keyLength) {
+        byte[] key = keyScratch.array();
+        int h = 0x811C9DC5;
+        for (int i = 0; i < keyLength; i++) {
+            h = (h ^ key[i]) * 0x01000193;
+        }
+        return HashTable.spread(h);
+    }
+
+    private void checkOpen() {
+        if (closed) throw new IllegalStateException("Table has been closed.");
+    }
+
+    // sun.misc.Unsafe.invokeCleaner, if this JVM allows it, for freeing
+    // direct buffers without waiting for them to be garbage collected
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafe = theUnsafe.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // fall back to letting the garbage collector free the buffers
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    /* release a direct buffer's memory now if possible; buf must not be used
+     * afterwards */
+    private static void free(ByteBuffer buf) {
+        if (INVOKE_CLEANER == null || buf == null || !buf.isDirect()) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buf);
+        } catch (ReflectiveOperationException e) {
+            // the buffer is freed when it is garbage collected instead
+        }
+    }
+}
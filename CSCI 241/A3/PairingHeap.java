@@ -0,0 +1,196 @@
+package heap;
+/*
+ * Author: Ben Fry-Holman
+ * Date: 7/25/2024
+ * Purpose: Heaps for A3
+ */
+import java.util.NoSuchElementException;
+
+/** A min-heap of distinct values of type V with priorities of type P,
+ *  stored as a pairing heap: a multiway tree in which every node's priority
+ *  is at most its children's. Two trees are melded by making the root with
+ *  the larger priority the first child of the other, in O(1).
+ *
+ *  add melds a one-node tree with the root, and lowering a priority cuts
+ *  the node's subtree out and melds it with the root, so both take O(1)
+ *  time (amortized, for the decrease). poll removes the root and combines
+ *  its children with the two-pass pairing scheme, in O(log n) amortized
+ *  time. That makes it a good fit for Dijkstra's algorithm on dense graphs,
+ *  which lowers priorities far more often than it polls. */
+public class PairingHeap<V, P extends Comparable<P>> implements MinPriorityQueue<V, P> {
+
+    /** A node of the tree. Children form a doubly linked list: the first
+     *  child's prev is its parent, and each later child's prev is its left
+     *  sibling. */
+    class Node {
+        V value;
+        P priority;
+        Node child; // first child, or null
+        Node sibling; // next sibling, or null
+        Node prev; // parent if first child, else previous sibling; null at root
+
+        /** A Node with value v and priority p*/
+        Node(V v, P p) {
+            value = v;
+            priority = p;
+        }
+
+        public String toString() {
+            return value.toString();
+        }
+    }
+
+    protected Node root; // root of the tree, or null if empty
+    protected int size; // number of values in the heap
+    protected HashTable<V, Node> nodes; // the node holding each value
+
+    /** Constructor: an empty heap. */
+    public PairingHeap() {
+        nodes = new HashTable<V, Node>();
+    }
+
+    /** Add v with priority p to the heap. Runtime: O(1) expected.
+     *  Precondition: p is not null.
+     *  @throws IllegalArgumentException if v is already in the heap.*/
+    public void add(V v, P p) throws IllegalArgumentException {
+        Node node = new Node(v, p);
+        if (nodes.putIfAbsent(v, node) != null) {
+            throw new IllegalArgumentException();
+        }
+        root = meld(root, node);
+        size++;
+    }
+
+    /** Return the number of values in this heap.
+     *  This operation takes constant time. */
+    public int size() {
+        return size;
+    }
+
+    /** Return the value of this heap with lowest priority. Do not
+     *  change the heap. This operation takes constant time.
+     *  @throws NoSuchElementException if the heap is empty. */
+    public V peek() throws NoSuchElementException {
+        if (root == null) throw new NoSuchElementException("Heap is empty.");
+        return root.value;
+    }
+
+    /** Remove and return the element of this heap with lowest priority.
+     *  Runtime: O(log size) amortized.
+     *  @throws NoSuchElementException if the heap is empty. */
+    public V poll() throws NoSuchElementException {
+        if (root == null) throw new NoSuchElementException("Heap is empty.");
+        Node min = root;
+        nodes.remove(min.value);
+        root = mergePairs(min.child);
+        min.child = null;
+        size--;
+        return min.value;
+    }
+
+    /** Return true if the value v is in the heap, false otherwise.
+     *  The average case runtime is O(1).  */
+    public boolean contains(V v) {
+        return nodes.containsKey(v);
+    }
+
+    /** Change the priority of value v to p. Lowering it takes O(1)
+     *  amortized time; raising it takes O(log size) amortized time, since
+     *  the node's children must be combined as in poll.
+     *  @throws IllegalArgumentException if v is not in the heap. */
+    public void changePriority(V v, P p) throws IllegalArgumentException {
+        Node node = nodes.get(v);
+        if (node == null) throw new IllegalArgumentException("Value not found in heap.");
+        int cmp = p.compareTo(node.priority);
+        node.priority = p;
+        if (cmp < 0) {
+            if (node != root) {
+                cut(node);
+                root = meld(root, node);
+            }
+        } else if (cmp > 0) {
+            // the node may now be larger than its children: detach them,
+            // combine them, and meld them back with the node
+            if (node != root) {
+                cut(node);
+            } else {
+                root = null;
+            }
+            Node children = mergePairs(node.child);
+            node.child = null;
+            root = meld(root, meld(node, children));
+        }
+    }
+
+    /* Meld the trees rooted at a and b, which have no siblings, and return
+     * the root of the result. On equal priorities a stays the root. */
+    private Node meld(Node a, Node b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (b.priority.compareTo(a.priority) < 0) {
+            Node t = a;
+            a = b;
+            b = t;
+        }
+        // b becomes a's first child
+        b.sibling = a.child;
+        if (a.child != null) {
+            a.child.prev = b;
+        }
+        b.prev = a;
+        a.child = b;
+        return a;
+    }
+
+    /* Detach node, which is not the root, and its subtree from its parent. */
+    private void cut(Node node) {
+        if (node.prev.child == node) {
+            node.prev.child = node.sibling;
+        } else {
+            node.prev.sibling = node.sibling;
+        }
+        if (node.sibling != null) {
+            node.sibling.prev = node.prev;
+        }
+        node.prev = null;
+        node.sibling = null;
+    }
+
+    /* Combine the sibling list starting at first into one tree and return its
+     * root: meld the siblings in pairs from left to right, then meld the
+     * results from right to left. */
+    private Node mergePairs(Node first) {
+        // first pass; the melded pairs are stacked through their sibling
+        // pointers, so the last pair ends up on top
+        Node pairs = null;
+        Node a = first;
+        while (a != null) {
+            Node b = a.sibling;
+            a.prev = null;
+            a.sibling = null;
+            Node next = null;
+            if (b != null) {
+                next = b.sibling;
+                b.prev = null;
+                b.sibling = null;
+                a = meld(a, b);
+            }
+            a.sibling = pairs;
+            pairs = a;
+            a = next;
+        }
+        // second pass, from the last pair back to the first
+        Node result = null;
+        while (pairs != null) {
+            Node next = pairs.sibling;
+            pairs.sibling = null;
+            result = meld(pairs, result);
+            pairs = next;
+        }
+        return result;
+    }
+}
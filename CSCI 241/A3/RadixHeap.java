@@ -0,0 +1,195 @@
+package heap;
+/*
+ * Author: Ben Fry-Holman
+ * Date: 7/25/2024
+ * Purpose: Heaps for A3
+ */
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/** A monotone priority queue of distinct int ids with long keys: a radix
+ *  heap. It requires that no key added is smaller than the last key
+ *  removed, which holds for Dijkstra's algorithm with nonnegative integer
+ *  edge weights, and in exchange inserts and decreases keys in O(1) and
+ *  removes the minimum in O(log C) amortized time, where C is the largest
+ *  key difference, with no comparisons between entries.
+ *
+ *  Let last be the most recently removed key (initially 0). Bucket 0 holds
+ *  ids whose key equals last, and bucket b > 0 holds ids whose key first
+ *  differs from last in bit b-1, counting from the low end; so every key in
+ *  bucket b is smaller than every key in bucket b+1. When bucket 0 runs out,
+ *  the smallest key of the first nonempty bucket becomes last and that
+ *  bucket's ids are redistributed into lower buckets. An id only ever moves
+ *  to lower buckets, so each is moved at most 64 times.
+ *
+ *  Buckets are doubly linked lists threaded through arrays indexed by id, so
+ *  an id can be unlinked in O(1) when its key decreases. As with
+ *  IndexedDoubleHeap, ids should be dense; the arrays grow to the largest
+ *  id added. */
+public class RadixHeap {
+
+    private static final int BUCKETS = 65;
+
+    protected long[] keys; // keys[id] is id's key
+    protected int[] next; // next id in id's bucket, or -1
+    protected int[] prev; // previous id in id's bucket, or -1
+    protected int[] bucket; // bucket[id] is id's bucket, or -1 if id is absent
+    protected final int[] head = new int[BUCKETS]; // first id in each bucket, or -1
+    protected long last; // the most recently removed key
+    protected int size; // number of ids in the heap
+
+    /** Constructor: an empty heap with room for ids 0..15. */
+    public RadixHeap() {
+        this(16);
+    }
+
+    /** Constructor: an empty heap with room for ids 0..capacity-1. */
+    public RadixHeap(int capacity) {
+        keys = new long[capacity];
+        next = new int[capacity];
+        prev = new int[capacity];
+        bucket = new int[capacity];
+        Arrays.fill(bucket, -1);
+        Arrays.fill(head, -1);
+    }
+
+    /** Make room for ids 0..capacity-1 so that adding them allocates
+     *  nothing. */
+    public void ensureCapacity(int capacity) {
+        if (capacity > bucket.length) {
+            int old = bucket.length;
+            int cap = Math.max(capacity, old * 2);
+            keys = Arrays.copyOf(keys, cap);
+            next = Arrays.copyOf(next, cap);
+            prev = Arrays.copyOf(prev, cap);
+            bucket = Arrays.copyOf(bucket, cap);
+            Arrays.fill(bucket, old, cap, -1);
+        }
+    }
+
+    /** Return the number of ids in this heap.
+     *  This operation takes constant time. */
+    public int size() {
+        return size;
+    }
+
+    /** Return true if id is in the heap, false otherwise.
+     *  This operation takes constant time. */
+    public boolean contains(int id) {
+        return id >= 0 && id < bucket.length && bucket[id] >= 0;
+    }
+
+    /** Add id with the given key. Runtime: O(1).
+     *  @throws IllegalArgumentException if id is negative or already in the
+     *  heap, or key is smaller than the last key removed. */
+    public void add(int id, long key) {
+        if (id < 0) throw new IllegalArgumentException("Id cannot be negative.");
+        if (key < last) throw new IllegalArgumentException("Key is below the last key removed.");
+        ensureCapacity(id + 1);
+        if (bucket[id] >= 0) throw new IllegalArgumentException();
+        keys[id] = key;
+        link(id, bucketOf(key));
+        size++;
+    }
+
+    /** Lower the key of id to key. Runtime: O(1).
+     *  @throws IllegalArgumentException if id is not in the heap, or key is
+     *  greater than its current key or smaller than the last key removed. */
+    public void decreaseKey(int id, long key) {
+        if (!contains(id)) throw new IllegalArgumentException("Id not found in heap.");
+        if (key > keys[id]) throw new IllegalArgumentException("Key cannot increase.");
+        if (key < last) throw new IllegalArgumentException("Key is below the last key removed.");
+        unlink(id);
+        keys[id] = key;
+        link(id, bucketOf(key));
+    }
+
+    /** Return the smallest key in the heap without removing it.
+     *  Runtime: O(log C) amortized.
+     *  @throws NoSuchElementException if the heap is empty. */
+    public long peekKey() {
+        if (size == 0) throw new NoSuchElementException("Heap is empty.");
+        refill();
+        return last;
+    }
+
+    /** Remove and return an id with the smallest key.
+     *  Runtime: O(log C) amortized.
+     *  @throws NoSuchElementException if the heap is empty. */
+    public int poll() {
+        if (size == 0) throw new NoSuchElementException("Heap is empty.");
+        refill();
+        int id = head[0];
+        unlink(id);
+        bucket[id] = -1;
+        size--;
+        return id;
+    }
+
+    /** Remove every id from the heap and forget the last key removed, keeping
+     *  the heap's capacity. Runtime: O(size) */
+    public void clear() {
+        for (int b = 0; b < BUCKETS; b++) {
+            for (int id = head[b]; id >= 0; id = next[id]) {
+                bucket[id] = -1;
+            }
+            head[b] = -1;
+        }
+        last = 0;
+        size = 0;
+    }
+
+    /* If bucket 0 is empty, make the smallest key the new last and
+     * redistribute the first nonempty bucket, which holds it, so that its
+     * ids with that key land in bucket 0. Precondition: size > 0. */
+    private void refill() {
+        if (head[0] >= 0) {
+            return;
+        }
+        int b = 1;
+        while (head[b] < 0) {
+            b++;
+        }
+        long min = Long.MAX_VALUE;
+        for (int id = head[b]; id >= 0; id = next[id]) {
+            min = Math.min(min, keys[id]);
+        }
+        last = min;
+        int id = head[b];
+        head[b] = -1;
+        while (id >= 0) {
+            int following = next[id];
+            link(id, bucketOf(keys[id]));
+            id = following;
+        }
+    }
+
+    /* the bucket for key relative to last */
+    private int bucketOf(long key) {
+        return key == last ? 0 : 64 - Long.numberOfLeadingZeros(key ^ last);
+    }
+
+    /* push id onto the front of bucket b */
+    private void link(int id, int b) {
+        int first = head[b];
+        next[id] = first;
+        prev[id] = -1;
+        if (first >= 0) {
+            prev[first] = id;
+        }
+        head[b] = id;
+        bucket[id] = b;
+    }
+
+    /* remove id from its bucket's list; bucket[id] is left as it was */
+    private void unlink(int id) {
+        if (prev[id] >= 0) {
+            next[prev[id]] = next[id];
+        } else {
+            head[bucket[id]] = next[id];
+        }
+        if (next[id] >= 0) {
+            prev[next[id]] = prev[id];
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package heap;
+
+//Ben Fry-Holman
+//11/18/2024
+//Array List lab
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/** An AList stored as a directory of fixed-size chunks instead of one
+* array. Growing adds a chunk and never copies elements, so a very large list
+* never needs the old and new arrays side by side and never allocates one
+* huge array. Chunks hold 2^shift elements, so element i is found with a
+* shift and a mask: chunks[i >>> shift][i & mask]. Only the directory of
+* chunk pointers is ever copied, and it is 2^shift times smaller than the
+* list. */
+public class SegmentedAList<T> extends AList<T> {
+
+  /** the chunk shift used when none is given: 1024 elements per chunk */
+  public static final int DEFAULT_SHIFT = 10;
+
+  protected final int shift; // chunks hold 1 << shift elements
+  protected final int mask; // (1 << shift) - 1, the index within a chunk
+  protected T[][] chunks; // the directory; chunks[0..chunkCount-1] exist
+  protected int chunkCount; // number of allocated chunks
+
+  /** Creates a SegmentedAList with chunks of 1024 elements */
+  public SegmentedAList() {
+    this(DEFAULT_SHIFT);
+  }
+
+  /** Creates a SegmentedAList with chunks of 2^shift elements.
+  * @throws IllegalArgumentException if shift is not in 1..30 */
+  @SuppressWarnings("unchecked")
+  public SegmentedAList(int shift) {
+    super(0);
+    if (shift < 1 || shift > 30) {
+      throw new IllegalArgumentException("Chunk shift must be in 1..30.");
+    }
+    this.shift = shift;
+    mask = (1 << shift) - 1;
+    chunks = (T[][]) new Object[4][];
+    chunkCount = 0;
+  }
+
+  @Override
+  protected int getCap() {
+    return chunkCount << shift;
+  }
+
+  /* Adds chunks until the capacity is at least newSize. Existing elements
+  * never move. This does *not* change the list's size. */
+  @Override
+  protected void growIfNeeded(int newSize) {
+    while (newSize > getCap()) {
+      if (chunkCount == chunks.length) {
+        chunks = Arrays.copyOf(chunks, chunkCount * 2);
+      }
+      chunks[chunkCount++] = createArray(1 << shift);
+    }
+  }
+
+  /** Resizes the list.
+  *  this *does* modify the size, and may add chunks if newsize exceeds
+  *  capacity. Slots cut off by shrinking are cleared. */
+  @Override
+  public void resize(int newsize) {
+    growIfNeeded(newsize);
+    for (int i = newsize; i < size; i++) {
+      chunks[i >>> shift][i & mask] = null;
+    }
+    size = newsize;
+  }
+
+  /** Gets element i from the list.
+  * @throws ArrayIndexOutOfBoundsException if 0 <= i < size does not hold */
+  @Override
+  public T get(int i) {
+    if (i < 0 || i >= size) {
+      throw new ArrayIndexOutOfBoundsException();
+    }
+    return chunks[i >>> shift][i & mask];
+  }
+
+  /** Sets the ith element of the list to value.
+  * @throws ArrayIndexOutOfBoundsException if 0 <= i < size does not hold */
+  @Override
+  public void put(int i, T value) {
+    if (i < 0 || i >= size) {
+      throw new ArrayIndexOutOfBoundsException();
+    }
+    chunks[i >>> shift][i & mask] = value;
+  }
+
+  /** Appends value at the end of the list, increasing size by 1.
+  * Adds a chunk if the last one is full; nothing is copied */
+  @Override
+  public void append(T value) {
+    if (size == getCap()) {
+      growIfNeeded(size + 1);
+    }
+    chunks[size >>> shift][size & mask] = value;
+    size++;
+  }
+
+  /** Removes and returns the value at the end of the list.
+  *  this *does* modify size and cannot modify capacity.
+  *  @throws NoSuchElementException if size == 0*/
+  @Override
+  public T pop() {
+    if (size == 0) {
+      throw new NoSuchElementException();
+    }
+    size--;
+    T[] chunk = chunks[size >>> shift];
+    T value = chunk[size & mask];
+    chunk[size & mask] = null; // let the popped object be garbage collected
+    return value;
+  }
+
+  /** Releases the chunks that hold no elements */
+  public void trimToSize() {
+    int needed = (size + mask) >>> shift;
+    Arrays.fill(chunks, needed, chunkCount, null);
+    chunkCount = needed;
+  }
+
+}
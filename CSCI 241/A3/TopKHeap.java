@@ -0,0 +1,123 @@
+package heap;
+/*
+ * Author: Ben Fry-Holman
+ * Date: 7/25/2024
+ * Purpose: Heaps for A3
+ */
+
+/** Keeps the k values with the smallest priorities offered to it, in O(k)
+ *  memory however many are offered. It is not a priority queue: values go
+ *  in through offer and come out, best first, through drainSorted.
+ *
+ *  Internally it is a binary max-heap of the kept values, so the root holds
+ *  the largest kept priority, the current k-th best. Once k values are kept,
+ *  a value no better than that is rejected with a single comparison and a
+ *  better one replaces the root. Values need not be distinct; each offer is
+ *  kept or rejected on its priority alone. */
+public final class TopKHeap<V, P extends Comparable<P>> {
+
+    /**
+     * Class Invariants:
+     *   1. values[0..size-1] and priorities[0..size-1] form a complete binary
+     *      tree in which priorities[(i-1)/2] >= priorities[i] for every i > 0.
+     *   2. size <= values.length, which is k.
+     */
+    private final Object[] values; // values[i] is the value at position i
+    private final Object[] priorities; // priorities[i] is that of values[i]
+    private int size; // number of values kept
+
+    /** Constructor: an empty heap that keeps the k best values.
+     *  @throws IllegalArgumentException if k < 1 */
+    public TopKHeap(int k) {
+        if (k < 1) throw new IllegalArgumentException("k must be at least 1.");
+        values = new Object[k];
+        priorities = new Object[k];
+    }
+
+    /** Return the number of values kept, at most k. */
+    public int size() {
+        return size;
+    }
+
+    /** Keep v with priority p if fewer than k values are kept or p is
+     *  smaller than the largest kept priority, which is then dropped, and
+     *  return whether v was kept. Rejecting v takes constant time; keeping
+     *  it takes O(log k). Precondition: p is not null. */
+    public boolean offer(V v, P p) {
+        if (size < values.length) {
+            siftUp(size++, v, p);
+            return true;
+        }
+        if (p.compareTo(priority(0)) >= 0) {
+            return false;
+        }
+        siftDown(0, v, p);
+        return true;
+    }
+
+    /** Remove every kept value, writing them to buffer[0], buffer[1], ...
+     *  from smallest priority to largest, and return how many there were.
+     *  @throws IllegalArgumentException if buffer is smaller than size() */
+    public int drainSorted(V[] buffer) throws IllegalArgumentException {
+        int n = size;
+        if (n > buffer.length) {
+            throw new IllegalArgumentException("Buffer is smaller than the heap.");
+        }
+        // the root is the largest, so fill the buffer from its end
+        for (int i = n - 1; i >= 0; i--) {
+            buffer[i] = value(0);
+            size--;
+            if (size > 0) {
+                siftDown(0, value(size), priority(size));
+            }
+            values[size] = null;
+            priorities[size] = null;
+        }
+        return n;
+    }
+
+    /* Move each ancestor of the hole at k whose priority is smaller than p
+     * down into the hole, then put v and p in the hole. */
+    private void siftUp(int k, V v, P p) {
+        while (k > 0) {
+            int parent = (k - 1) / 2;
+            if (p.compareTo(priority(parent)) <= 0) {
+                break;
+            }
+            values[k] = values[parent];
+            priorities[k] = priorities[parent];
+            k = parent;
+        }
+        values[k] = v;
+        priorities[k] = p;
+    }
+
+    /* Move the larger child of the hole at k up into the hole while its
+     * priority is larger than p, then put v and p in the hole. */
+    private void siftDown(int k, V v, P p) {
+        while (2 * k + 1 < size) {
+            int child = 2 * k + 1;
+            if (child + 1 < size && priority(child + 1).compareTo(priority(child)) > 0) {
+                child++;
+            }
+            if (p.compareTo(priority(child)) >= 0) {
+                break;
+            }
+            values[k] = values[child];
+            priorities[k] = priorities[child];
+            k = child;
+        }
+        values[k] = v;
+        priorities[k] = p;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(int i) {
+        return (V) values[i];
+    }
+
+    @SuppressWarnings("unchecked")
+    private P priority(int i) {
+        return (P) priorities[i];
+    }
+}
@@ -1,7 +1,5 @@
 package graph;
 
-import java.util.HashMap;
-import java.util.Scanner;
 import java.io.File;
 import java.io.FileNotFoundException;
 
@@ -9,18 +7,75 @@ import java.io.FileNotFoundException;
  * information; each line must contain:
  *  ORIG DEST DISTANCE
  * separated by a single space. ORIG and DEST are parsed as Strings, and
- * DISTANCE is parsed as a double. Any content after DISTANCE is ignored. */
+ * DISTANCE is parsed as a double. Any content after DISTANCE is ignored.
+ * The file is memory-mapped and split into fields as bytes by a CsvTokenizer;
+ * with more than one thread, it is parsed in chunks in parallel (see
+ * ParallelParser). The graph does not depend on the number of threads. */
 public class BasicParser extends GraphParser {
 
-    Scanner sc; // scanner to read the text file
+    // columns of ORIG, DEST and DISTANCE
+    private static final int[] COLUMNS = {0, 1, 2};
+
+    private final int threads; // threads to parse with
+    private File file; // the opened file
+    private EdgeReducer reducer = EdgeReducer.LAST; // combines the rows of a route
+    private IngestReport report; // what the last parse did
+    private long maxLines = -1; // lines to parse, or -1 for all
+
+    /**
+     * Constructor: create a parser that parses on one thread.
+     */
+    public BasicParser() {
+        this(1);
+    }
+
+    /**
+     * Constructor: create a parser that parses on the given number of threads. Throws IllegalArgumentException if
+     * threads is less than 1.
+     */
+    public BasicParser(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1: " + threads);
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Parse at most maxLines lines, ignoring the rest of the file, or every line if maxLines is negative. Limiting the
+     * lines parses on one thread.
+     */
+    public void setMaxLines(long maxLines) {
+        this.maxLines = maxLines;
+    }
+
+    /**
+     * Combine the rows that share an origin and destination into one edge with reducer. The default, LAST, keeps the
+     * weight of the last such row.
+     */
+    public void setReducer(EdgeReducer reducer) {
+        if (reducer == null) {
+            throw new IllegalArgumentException("reducer must not be null");
+        }
+        this.reducer = reducer;
+    }
+
+    /**
+     * Return the report of the rows the last parse read and the routes they collapsed into, or null if parse() has
+     * not been called.
+     */
+    public IngestReport getReport() {
+        return report;
+    }
 
     /**
      * Open the given file and prepare to parse it.
      */
     @Override
     public void open(File f) throws FileNotFoundException {
-        //airports = new HashMap<String,Airport>();
-        sc = new Scanner(f);
+        if (!f.isFile()) {
+            throw new FileNotFoundException(f.getPath());
+        }
+        file = f;
     }
 
     /**
@@ -29,19 +84,8 @@ public class BasicParser extends GraphParser {
      */
     @Override
     public Graph parse() {
-        Graph graph = new Graph();
-
-        while (sc.hasNextLine()) {
-            String[] data = sc.nextLine().split(" ");
-            String origCode = data[0];
-            String destCode = data[1];
-            double distance = Double.parseDouble(data[2]);
-
-            Node orig = graph.getNode(origCode);
-            Node dest = graph.getNode(destCode);
-            graph.addEdge(orig, dest, distance);
-        }
-
-        return graph;
+        ParallelParser.Ingest ingest = ParallelParser.parse(file, 0, ' ', COLUMNS, threads, maxLines, reducer);
+        report = ingest.report;
+        return ingest.graph;
     }
 }
@@ -0,0 +1,122 @@
+package graph;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/** Interns short byte strings, such as airport codes, to the ints 0, 1, 2, ... in order of first appearance. Codes
+ * are hashed and compared as bytes, so a code only becomes a String, in name(), once. */
+final class CodeTable {
+
+    private static final double MAX_LOAD = 0.5;
+
+    private byte[] pool = new byte[256]; // the bytes of every code, one after another
+    private int poolSize;
+    private int[] offsets = new int[33]; // code i is pool[offsets[i]..offsets[i+1]-1]
+    private int size;
+
+    private int[] slots; // open-addressed table of code + 1, or 0 if empty
+    private int[] hashes; // hashes[s] is the hash of the code in slots[s]
+
+    /**
+     * Constructor: create an empty table.
+     */
+    CodeTable() {
+        slots = new int[64];
+        hashes = new int[64];
+    }
+
+    /**
+     * Return the number of distinct codes interned.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Return the int for the code in bytes from its position to its limit, assigning the next int if the code is new.
+     */
+    int intern(ByteBuffer bytes) {
+        int from = bytes.position();
+        int to = bytes.limit();
+        int h = 0x811C9DC5;
+        for (int i = from; i < to; i++) {
+            h = (h ^ bytes.get(i)) * 0x01000193;
+        }
+        h ^= h >>> 16;
+        int mask = slots.length - 1;
+        int s = h & mask;
+        while (slots[s] != 0) {
+            int id = slots[s] - 1;
+            if (hashes[s] == h && matches(id, bytes, from, to)) {
+                return id;
+            }
+            s = (s + 1) & mask;
+        }
+        int id = add(bytes, from, to);
+        slots[s] = id + 1;
+        hashes[s] = h;
+        if (size > slots.length * MAX_LOAD) {
+            grow();
+        }
+        return id;
+    }
+
+    /**
+     * Return code id decoded with charset.
+     */
+    String name(int id, Charset charset) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("No code " + id);
+        }
+        return new String(pool, offsets[id], offsets[id + 1] - offsets[id], charset);
+    }
+
+    /* return whether code id has the bytes from..to-1 */
+    private boolean matches(int id, ByteBuffer bytes, int from, int to) {
+        int start = offsets[id];
+        if (offsets[id + 1] - start != to - from) {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            if (pool[start++] != bytes.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* append the bytes from..to-1 as the next code and return its int */
+    private int add(ByteBuffer bytes, int from, int to) {
+        int length = to - from;
+        if (poolSize + length > pool.length) {
+            pool = Arrays.copyOf(pool, Math.max(poolSize + length, pool.length * 2));
+        }
+        bytes.get(from, pool, poolSize, length);
+        poolSize += length;
+        if (size + 2 > offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        offsets[++size] = poolSize;
+        return size - 1;
+    }
+
+    /* double the table and reinsert every code */
+    private void grow() {
+        int[] oldSlots = slots;
+        int[] oldHashes = hashes;
+        slots = new int[oldSlots.length * 2];
+        hashes = new int[oldSlots.length * 2];
+        int mask = slots.length - 1;
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldSlots[i] != 0) {
+                int s = oldHashes[i] & mask;
+                while (slots[s] != 0) {
+                    s = (s + 1) & mask;
+                }
+                slots[s] = oldSlots[i];
+                hashes[s] = oldHashes[i];
+            }
+        }
+    }
+}
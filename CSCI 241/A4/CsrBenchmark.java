@@ -0,0 +1,72 @@
+package graph;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Random;
+
+/*
+ * Author: Ben Fry-Holman
+ * Date: 8/11/2024
+ * Purpose: Paths and Graphs for A4
+ */
+
+/** Compares a Graph with its frozen CsrGraph: the heap memory each retains, and the time Dijkstra's algorithm takes on
+ * each from the same sample of origins (ShortestPaths with an INDEXED queue against CsrShortestPaths). Memory is
+ * estimated from the used heap after garbage collection, so run it with nothing else going on. Usage:
+ *   java graph.CsrBenchmark fileType fileName [origins]
+ *   java graph.CsrBenchmark random nodes [origins]
+ * The second form uses a random graph with average degree 8. Default: 20 origins. */
+public class CsrBenchmark {
+
+    public static void main(String[] args) throws FileNotFoundException {
+        if (args.length < 2) {
+            System.out.println("Usage: CsrBenchmark fileType fileName [origins]");
+            return;
+        }
+        int originCount = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        long before = usedMemory();
+        Graph graph = args[0].equals("random")
+                ? HeapArityBenchmark.randomGraph(Integer.parseInt(args[1]), 8, new Random(241))
+                : ShortestPaths.parseGraph(args[0], args[1]);
+        long graphBytes = usedMemory() - before;
+        before = usedMemory();
+        CsrGraph csr = graph.freeze();
+        long csrBytes = usedMemory() - before;
+        csr.report();
+        System.out.printf("Graph: %.1f MB, CsrGraph: %.1f MB%n", graphBytes / 1e6, csrBytes / 1e6);
+
+        ArrayList<Node> nodes = new ArrayList<Node>(graph.getNodes().values());
+        Random random = new Random(42);
+        Node[] origins = new Node[originCount];
+        for (int i = 0; i < originCount; i++) {
+            origins[i] = nodes.get(random.nextInt(nodes.size()));
+        }
+
+        System.out.println("round\tGraph(ms)\tCsrGraph(ms)");
+        ShortestPaths sp = new ShortestPaths(ShortestPaths.QueueType.INDEXED);
+        CsrShortestPaths csp = new CsrShortestPaths(csr);
+        for (int round = 1; round <= 5; round++) {
+            long start = System.nanoTime();
+            for (Node origin : origins) {
+                sp.compute(origin);
+            }
+            double graphMillis = (System.nanoTime() - start) / 1e6;
+            start = System.nanoTime();
+            for (Node origin : origins) {
+                csp.compute(csr.indexOf(origin.getId()));
+            }
+            double csrMillis = (System.nanoTime() - start) / 1e6;
+            System.out.printf("%d\t%.1f\t\t%.1f%n", round, graphMillis, csrMillis);
+        }
+    }
+
+    /* the heap memory in use after a garbage collection */
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,155 @@
+package graph;
+
+import heap.ObjectIntMap;
+
+import java.util.Map;
+
+/** An immutable graph in compressed sparse row (CSR) form, made from a Graph by Graph.freeze(). Nodes are numbered
+ * densely from 0 in the Graph's node order, and getId and indexOf translate between numbers and String ids. The edges
+ * leaving node v are edges firstEdge(v) through endEdge(v)-1; edge e leads to target(e) with weight weight(e). Three
+ * flat arrays hold everything, so an edge costs 12 bytes instead of a HashMap entry and a boxed Double, and walking a
+ * node's edges reads consecutive memory. Each node's edges keep the order the Graph iterated them in. */
+public class CsrGraph {
+
+    final String[] ids; // ids[v] is the String id of node v
+    final ObjectIntMap<String> index; // maps each id to its node number
+    final int[] offsets; // node v's edges are offsets[v]..offsets[v+1]-1
+    final int[] targets; // targets[e] is the node edge e leads to
+    final double[] weights; // weights[e] is the weight of edge e
+
+    /**
+     * Constructor: number the given nodes and copy their edges. Every neighbor must itself be one of the nodes.
+     */
+    CsrGraph(Map<String, Node> nodes) {
+        int n = nodes.size();
+        ids = new String[n];
+        index = new ObjectIntMap<String>(n * 2, -1);
+        offsets = new int[n + 1];
+        int v = 0;
+        int m = 0;
+        for (Node node : nodes.values()) {
+            ids[v] = node.getId();
+            index.putInt(node.getId(), v);
+            m += node.getNeighbors().size();
+            offsets[++v] = m;
+        }
+        targets = new int[m];
+        weights = new double[m];
+        int e = 0;
+        for (Node node : nodes.values()) {
+            for (Map.Entry<Node, Double> edge : node.getNeighbors().entrySet()) {
+                targets[e] = index.getInt(edge.getKey().getId());
+                weights[e] = edge.getValue();
+                e++;
+            }
+        }
+    }
+
+    /**
+     * Constructor: a graph with the given ids and CSR arrays, which are used as they are. ids must be distinct,
+     * offsets must have one more element than ids, start at 0, never decrease and end at the number of edges, and
+     * targets and weights must have one element per edge, with every target a node number.
+     * @throws IllegalArgumentException if the arrays do not form such a graph
+     */
+    CsrGraph(String[] ids, int[] offsets, int[] targets, double[] weights) {
+        int n = ids.length;
+        if (offsets.length != n + 1 || targets.length != weights.length
+                || offsets[0] != 0 || offsets[n] != targets.length) {
+            throw new IllegalArgumentException("Inconsistent CSR sizes.");
+        }
+        for (int v = 0; v < n; v++) {
+            if (offsets[v + 1] < offsets[v]) {
+                throw new IllegalArgumentException("Edge offsets decrease at node " + v + ".");
+            }
+        }
+        for (int e = 0; e < targets.length; e++) {
+            if (targets[e] < 0 || targets[e] >= n) {
+                throw new IllegalArgumentException("Edge " + e + " leads to no node: " + targets[e]);
+            }
+        }
+        this.ids = ids;
+        this.index = new ObjectIntMap<String>(n * 2, -1);
+        for (int v = 0; v < n; v++) {
+            if (index.putIntIfAbsent(ids[v], v) != -1) {
+                throw new IllegalArgumentException("Duplicate node id: " + ids[v]);
+            }
+        }
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    /**
+     * Return the number of nodes.
+     */
+    public int getNodeCount() {
+        return ids.length;
+    }
+
+    /**
+     * Return the number of edges.
+     */
+    public int getEdgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * Return the String id of node v.
+     */
+    public String getId(int v) {
+        return ids[v];
+    }
+
+    /**
+     * Return the number of the node with the given id, or -1 if there is none.
+     */
+    public int indexOf(String id) {
+        return index.getInt(id);
+    }
+
+    /**
+     * Return the number of edges leaving node v.
+     */
+    public int degree(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    /**
+     * Return the first edge leaving node v.
+     */
+    public int firstEdge(int v) {
+        return offsets[v];
+    }
+
+    /**
+     * Return one past the last edge leaving node v.
+     */
+    public int endEdge(int v) {
+        return offsets[v + 1];
+    }
+
+    /**
+     * Return the node that edge e leads to.
+     */
+    public int target(int e) {
+        return targets[e];
+    }
+
+    /**
+     * Return the weight of edge e.
+     */
+    public double weight(int e) {
+        return weights[e];
+    }
+
+    /**
+     * Print a report of the graph's statistics, including number of nodes, number of edges, and average degree.
+     */
+    public void report() {
+        System.out.println("Graph has: ");
+        System.out.println(ids.length + " nodes.");
+        System.out.println(targets.length + " edges.");
+        System.out.println("Average degree " +
+                ((double) targets.length) / ((double) ids.length));
+    }
+}
@@ -0,0 +1,103 @@
+package graph;
+
+import heap.IndexedDoubleHeap;
+
+import java.util.Arrays;
+
+/*
+ * Author: Ben Fry-Holman
+ * Date: 8/11/2024
+ * Purpose: Paths and Graphs for A4
+ */
+
+/** Dijkstra's single-source shortest paths algorithm over a CsrGraph. It does what ShortestPaths does, but nodes are
+ * int numbers, so the distance and back pointer of each node live in flat arrays instead of a hash table, and the
+ * priority queue is an IndexedDoubleHeap keyed by node number. The arrays and heap are reused by every compute call.
+ * Distances and paths are the same as ShortestPaths with a HEAP or INDEXED queue finds on the Graph the CsrGraph was
+ * frozen from.
+ * Sample usage:
+ *   CsrGraph g = graph.freeze();
+ *   CsrShortestPaths sp = new CsrShortestPaths(g);
+ *   sp.compute(g.indexOf("A"));
+ *   int[] abPath = sp.shortestPath(g.indexOf("B"));
+ *   double abPathLength = sp.shortestPathLength(g.indexOf("B"));
+ *   */
+public class CsrShortestPaths {
+
+    private final CsrGraph graph;
+    private final double[] distance; // distance[v] from the origin, or infinity if unreached
+    private final int[] previous; // previous[v] on the shortest path to v, or -1
+    private final IndexedDoubleHeap toProcess;
+
+    /**
+     * Constructor: prepare to search the given graph.
+     */
+    public CsrShortestPaths(CsrGraph graph) {
+        this.graph = graph;
+        int n = graph.getNodeCount();
+        distance = new double[n];
+        previous = new int[n];
+        toProcess = new IndexedDoubleHeap(n);
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Compute the shortest path to all nodes from node origin using Dijkstra's algorithm. Precondition: origin is a
+     * node number of the graph.
+     */
+    public void compute(int origin) {
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+        Arrays.fill(previous, -1);
+        toProcess.clear();
+        int[] offsets = graph.offsets;
+        int[] targets = graph.targets;
+        double[] weights = graph.weights;
+        distance[origin] = 0;
+        toProcess.add(origin, 0.0);
+        while (toProcess.size() > 0) {
+            double currentDist = toProcess.peekKey();
+            int current = toProcess.poll();
+            for (int e = offsets[current], end = offsets[current + 1]; e < end; e++) {
+                int neighbor = targets[e];
+                double newDist = currentDist + weights[e];
+                if (newDist < distance[neighbor]) {
+                    distance[neighbor] = newDist;
+                    previous[neighbor] = current;
+                    if (toProcess.contains(neighbor)) {
+                        toProcess.decreaseKey(neighbor, newDist);
+                    } else {
+                        toProcess.add(neighbor, newDist);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the length of the shortest path from the origin to destination. If no path exists, return
+     * Double.POSITIVE_INFINITY. Precondition: compute(origin) has been called.
+     */
+    public double shortestPathLength(int destination) {
+        return distance[destination];
+    }
+
+    /**
+     * Returns the node numbers along the shortest path from origin to destination, including both. If origin and
+     * destination are the same node, it is included only once. If no path to it exists, return null. Precondition:
+     * compute(origin) has been called.
+     */
+    public int[] shortestPath(int destination) {
+        if (distance[destination] == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+        int length = 0;
+        for (int v = destination; v != -1; v = previous[v]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int v = destination; v != -1; v = previous[v]) {
+            path[--length] = v;
+        }
+        return path;
+    }
+}
@@ -0,0 +1,312 @@
+package graph;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/** Splits the delimited records in a ByteBuffer (usually a mapped part of a file) into fields without copying them.
+ * Records end with "\n" or "\r\n"; blank records are skipped. A field that starts with a double quote is quoted: it
+ * ends at the next lone quote, may contain the delimiter, and has "" for each quote in it. Quoted fields may not
+ * contain line breaks.
+ *
+ * A tokenizer is given the columns it should keep. Each record's fields in those columns are available by slot,
+ * where slot i is the field in the i'th column given, and the record is skipped past its last kept column without
+ * looking at the rest. With no columns given, every field is kept and slot i is column i. */
+final class CsvTokenizer {
+
+    // powers of ten that are exact doubles, for parseDouble
+    private static final double[] POWERS_OF_TEN = new double[23];
+    // the most digits whose value is always an exact double
+    private static final int MAX_EXACT_DIGITS = 15;
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final ByteBuffer bytes;
+    private final int limit;
+    private final byte delimiter;
+    private final Charset charset;
+
+    // slotOf[c] is the slot of column c, or -1 if column c is not kept; null keeps every column
+    private final int[] slotOf;
+    private final int lastColumn; // the last kept column, or Integer.MAX_VALUE if all are kept
+
+    private int pos; // start of the next record
+    private int recordStart; // start of the current record
+    private int recordEnd; // end of the current record, before its line ending
+
+    // the current record's kept fields, by slot: bytes starts[i]..ends[i]-1, or starts[i] == -1 if missing
+    private int[] starts;
+    private int[] ends;
+    private boolean[] escaped; // whether the field has "" in it
+    private int fieldCount; // number of slots filled, when every column is kept
+
+    private byte[] scratch = new byte[32]; // unescaped copies of escaped fields
+
+    /**
+     * Constructor: a tokenizer over bytes from its position to its limit that splits fields at delimiter and keeps
+     * the given columns, or every column if columns is null. Text is decoded with charset.
+     */
+    CsvTokenizer(ByteBuffer bytes, char delimiter, int[] columns, Charset charset) {
+        if (delimiter == '"' || delimiter == '\n' || delimiter == '\r' || delimiter > 0x7F) {
+            throw new IllegalArgumentException("Unsupported delimiter: " + delimiter);
+        }
+        this.bytes = bytes;
+        this.limit = bytes.limit();
+        this.delimiter = (byte) delimiter;
+        this.charset = charset;
+        pos = bytes.position();
+        if (columns == null) {
+            slotOf = null;
+            lastColumn = Integer.MAX_VALUE;
+            starts = new int[8];
+        } else {
+            int last = -1;
+            for (int c : columns) {
+                if (c < 0) {
+                    throw new IllegalArgumentException("Negative column: " + c);
+                }
+                last = Math.max(last, c);
+            }
+            slotOf = new int[last + 1];
+            Arrays.fill(slotOf, -1);
+            for (int i = 0; i < columns.length; i++) {
+                if (slotOf[columns[i]] != -1) {
+                    throw new IllegalArgumentException("Column " + columns[i] + " given twice.");
+                }
+                slotOf[columns[i]] = i;
+            }
+            lastColumn = last;
+            starts = new int[columns.length];
+        }
+        ends = new int[starts.length];
+        escaped = new boolean[starts.length];
+    }
+
+    /**
+     * Move to the next non-blank record and return true, or return false if there are no more.
+     */
+    boolean next() {
+        while (pos < limit) {
+            recordStart = pos;
+            int end = pos;
+            while (end < limit && bytes.get(end) != '\n') {
+                end++;
+            }
+            if (end > pos && bytes.get(end - 1) == '\r') {
+                end--;
+            }
+            if (end > recordStart) {
+                recordEnd = end;
+                split();
+                return true;
+            }
+            pos = end < limit && bytes.get(end) == '\r' ? end + 2 : end + 1;
+        }
+        return false;
+    }
+
+    /* record the kept fields of the record recordStart..recordEnd-1 and set pos to the next record */
+    private void split() {
+        int kept = slotOf == null ? 0 : starts.length;
+        Arrays.fill(starts, 0, kept, -1);
+        fieldCount = 0;
+        int i = recordStart;
+        int column = 0;
+        while (column <= lastColumn) {
+            int start = i;
+            int end;
+            boolean hasEscapes = false;
+            if (i < recordEnd && bytes.get(i) == '"') {
+                start = ++i;
+                while (true) {
+                    if (i >= recordEnd) {
+                        throw new IllegalArgumentException("Unterminated quoted field in line: " + line());
+                    }
+                    if (bytes.get(i) == '"') {
+                        if (i + 1 < recordEnd && bytes.get(i + 1) == '"') {
+                            hasEscapes = true;
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                end = i;
+                while (i < recordEnd && bytes.get(i) != delimiter) {
+                    i++;
+                }
+            } else {
+                while (i < recordEnd && bytes.get(i) != delimiter) {
+                    i++;
+                }
+                end = i;
+            }
+            keep(column, start, end, hasEscapes);
+            if (i >= recordEnd) {
+                break;
+            }
+            i++; // past the delimiter
+            column++;
+        }
+        // skip to the next record
+        pos = recordEnd;
+        if (pos < limit && bytes.get(pos) == '\r') {
+            pos++;
+        }
+        pos++;
+    }
+
+    /* keep the field start..end-1 of column if it is kept */
+    private void keep(int column, int start, int end, boolean hasEscapes) {
+        int slot;
+        if (slotOf == null) {
+            slot = fieldCount++;
+            if (slot == starts.length) {
+                starts = Arrays.copyOf(starts, slot * 2);
+                ends = Arrays.copyOf(ends, slot * 2);
+                escaped = Arrays.copyOf(escaped, slot * 2);
+            }
+        } else {
+            slot = slotOf[column];
+            if (slot < 0) {
+                return;
+            }
+        }
+        starts[slot] = start;
+        ends[slot] = end;
+        escaped[slot] = hasEscapes;
+    }
+
+    /**
+     * Return the number of fields in the current record. Only available when every column is kept.
+     */
+    int fieldCount() {
+        if (slotOf != null) {
+            throw new IllegalStateException("Only the kept columns were split.");
+        }
+        return fieldCount;
+    }
+
+    /**
+     * Return whether the current record has a field in the given slot.
+     */
+    boolean has(int slot) {
+        return slot < (slotOf == null ? fieldCount : starts.length) && starts[slot] >= 0;
+    }
+
+    /**
+     * Return the field in the given slot as a String.
+     */
+    String string(int slot) {
+        check(slot);
+        if (escaped[slot]) {
+            return new String(scratch, 0, unescape(slot), charset);
+        }
+        int length = ends[slot] - starts[slot];
+        byte[] copy = new byte[length];
+        bytes.get(starts[slot], copy, 0, length);
+        return new String(copy, charset);
+    }
+
+    /**
+     * Return the bytes of the field in the given slot, as a buffer whose position and limit bound the field. The
+     * buffer is only valid until the next call to this tokenizer, and must not be changed.
+     */
+    ByteBuffer bytes(int slot, ByteBuffer view) {
+        check(slot);
+        if (escaped[slot]) {
+            int length = unescape(slot);
+            return ByteBuffer.wrap(scratch, 0, length);
+        }
+        view.limit(ends[slot]).position(starts[slot]);
+        return view;
+    }
+
+    /**
+     * Return a view of the bytes this tokenizer splits, to pass to bytes(slot, view).
+     */
+    ByteBuffer view() {
+        return bytes.duplicate();
+    }
+
+    /**
+     * Return the field in the given slot parsed as a double, as Double.parseDouble would. Plain decimals with at most
+     * 15 digits are parsed straight from the bytes; anything else is decoded and given to Double.parseDouble. Throws
+     * NumberFormatException if the field is not a number.
+     */
+    double parseDouble(int slot) {
+        check(slot);
+        if (!escaped[slot]) {
+            int i = starts[slot];
+            int end = ends[slot];
+            boolean negative = false;
+            if (i < end && (bytes.get(i) == '-' || bytes.get(i) == '+')) {
+                negative = bytes.get(i) == '-';
+                i++;
+            }
+            long mantissa = 0;
+            int digits = 0;
+            int scale = -1; // digits after the point, or -1 before it
+            for (; i < end; i++) {
+                byte b = bytes.get(i);
+                if (b >= '0' && b <= '9') {
+                    mantissa = mantissa * 10 + (b - '0');
+                    digits++;
+                    if (scale >= 0) {
+                        scale++;
+                    }
+                } else if (b == '.' && scale < 0) {
+                    scale = 0;
+                } else {
+                    break;
+                }
+            }
+            if (i == end && digits > 0 && digits <= MAX_EXACT_DIGITS) {
+                // both are exact doubles, so the quotient is the correctly rounded value
+                double value = scale > 0 ? mantissa / POWERS_OF_TEN[scale] : mantissa;
+                return negative ? -value : value;
+            }
+        }
+        return Double.parseDouble(string(slot));
+    }
+
+    /**
+     * Return the current record as a String, for error messages.
+     */
+    String line() {
+        byte[] copy = new byte[recordEnd - recordStart];
+        bytes.get(recordStart, copy);
+        return new String(copy, charset);
+    }
+
+    /* throw if the current record has no field in slot */
+    private void check(int slot) {
+        if (!has(slot)) {
+            throw new IllegalArgumentException("Missing field " + slot + " in line: " + line());
+        }
+    }
+
+    /* copy the field in slot to scratch with each "" replaced by one quote, and return its length */
+    private int unescape(int slot) {
+        int start = starts[slot];
+        int end = ends[slot];
+        if (scratch.length < end - start) {
+            scratch = new byte[Math.max(end - start, scratch.length * 2)];
+        }
+        int n = 0;
+        for (int i = start; i < end; i++) {
+            byte b = bytes.get(i);
+            scratch[n++] = b;
+            if (b == '"') {
+                i++; // skip the second quote
+            }
+        }
+        return n;
+    }
+}
@@ -1,34 +1,89 @@
 package graph;
 
-import java.util.Scanner;
 import java.util.HashMap;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.util.ListIterator;
 
+/** Parser for DB1B CSV flight data. The header line names the columns; the
+ * ORIGIN, DEST and DISTANCE columns of each later line give an edge. Their
+ * indices are looked up once, from the header, and the file is memory-mapped
+ * and split into only those fields, as bytes, by a CsvTokenizer. With more
+ * than one thread, it is parsed in chunks in parallel (see ParallelParser).
+ * The graph does not depend on the number of threads. */
 public class DB1BParser extends GraphParser {
 
-    private Scanner sc; // a scanner reading the CSV file
-
     // map csv headers to column indices
     private HashMap<String, Integer> fieldKey;
 
     private Graph graph;
 
+    private final int threads; // threads to parse with
+    private File file; // the opened file
+    private long dataStart; // byte offset of the line after the header
+    private int[] columns; // indices of the origin, dest and distance columns
+    private EdgeReducer reducer = EdgeReducer.LAST; // combines the rows of a route
+    private IngestReport report; // what the last parse did
+    private long maxLines = -1; // lines to parse after the header, or -1 for all
+
     /**
      * Constructor: create parser.
      */
     public DB1BParser() {
+        this(1);
+    }
+
+    /**
+     * Constructor: create a parser that parses on the given number of threads. Throws IllegalArgumentException if
+     * threads is less than 1.
+     */
+    public DB1BParser(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1: " + threads);
+        }
+        this.threads = threads;
         graph = new Graph();
     }
 
     /**
-     * Open the given file and prepare to parse it.
+     * Parse at most maxLines lines after the header, ignoring the rest of the file, or every line if maxLines is
+     * negative. Limiting the lines parses on one thread.
+     */
+    public void setMaxLines(long maxLines) {
+        this.maxLines = maxLines;
+    }
+
+    /**
+     * Combine the rows that share an origin and destination into one edge with reducer. The default, LAST, keeps the
+     * weight of the last such row.
+     */
+    public void setReducer(EdgeReducer reducer) {
+        if (reducer == null) {
+            throw new IllegalArgumentException("reducer must not be null");
+        }
+        this.reducer = reducer;
+    }
+
+    /**
+     * Return the report of the rows the last parse read and the routes they collapsed into, or null if parse() has
+     * not been called.
+     */
+    public IngestReport getReport() {
+        return report;
+    }
+
+    /**
+     * Open the given file and prepare to parse it. Throws IllegalArgumentException if its header has no origin, dest
+     * or distance column.
      */
     @Override
     public void open(File f) throws FileNotFoundException {
-        sc = new Scanner(f);
-        parseHeaders(sc.nextLine());
+        if (!f.isFile()) {
+            throw new FileNotFoundException(f.getPath());
+        }
+        parseHeaders(ParallelParser.readHeader(f, ','));
+        columns = new int[]{column("origin"), column("dest"), column("distance")};
+        file = f;
+        dataStart = ParallelParser.afterFirstLine(f);
     }
 
     /**
@@ -37,47 +92,35 @@ public class DB1BParser extends GraphParser {
      */
     @Override
     public Graph parse() {
-        graph = new Graph();
-        while (sc.hasNextLine()) {
-            parseFlight(sc.nextLine().split(","));
-        }
+        ParallelParser.Ingest ingest = ParallelParser.parse(file, dataStart, ',', columns, threads, maxLines, reducer);
+        report = ingest.report;
+        graph = ingest.graph;
         return graph;
     }
 
-    /* Parse a line of the DB1B CSV file and construct a Flight object (edge)
-     * representing the data given in that line.  If the origin or destination
-     * airport is not a node in the graph, add it to the graph. Add this Flight
-     * to the list of departures from the origin. */
-    private void parseFlight(String[] fields) {
-        String origCode = fields[fieldKey.get("origin")].replace("\"", "");
-        ;
-        String destCode = fields[fieldKey.get("dest")].replace("\"", "");
-        ;
-
-        // if origin is not in graph, parse and create the new Airport
-
-        Node orig = graph.getNode(origCode);
-        Node dest = graph.getNode(destCode);
-
-        double miles = Double.parseDouble(fields[fieldKey.get("distance")]);
-        graph.addEdge(orig, dest, miles);
-    }
-
-    /* create fieldKey from the header line of the csv file.
+    /* create fieldKey from the fields of the header line of the csv file.
      * fieldKey maps a field's name to its column index in the csv file. */
-    private void parseHeaders(String headerLine) {
+    private void parseHeaders(String[] headers) {
         fieldKey = new HashMap<String, Integer>();
-        String[] headers = headerLine.split(",");
         for (int i = 0; i < headers.length; i++) {
-            fieldKey.put(headers[i].replace("\"", "").toLowerCase(), i);
-            //System.out.println(headers[i] + ": " + i);
+            fieldKey.put(headers[i].toLowerCase(), i);
         }
     }
 
+    /* return the index of the column with the given lowercase name */
+    private int column(String name) {
+        Integer index = fieldKey.get(name);
+        if (index == null) {
+            throw new IllegalArgumentException("No " + name + " column in the header.");
+        }
+        return index;
+    }
+
     /** Main method: open a csv file and parse a graph.
      *  If no command line arguments are given, parse the entire file.
      *  If one command line is given, it specifies the maximum number of lines
-     *  to parse before ignoring the rest of the file. */
+     *  to parse before ignoring the rest of the file. A second names the
+     *  EdgeReducer for repeated routes: min, mean, count or last (default). */
     public static void main(String[] args) {
         DB1BParser parser = new DB1BParser();
         try {
@@ -90,9 +133,14 @@ public class DB1BParser extends GraphParser {
         if (args.length > 1) {
             maxLines = Integer.parseInt(args[1]);
         }
+        parser.setMaxLines(maxLines);
+        if (args.length > 2) {
+            parser.setReducer(EdgeReducer.valueOf(args[2].toUpperCase()));
+        }
 
         Graph g = parser.parse();
         g.report();
+        parser.getReport().report();
     }
 
 
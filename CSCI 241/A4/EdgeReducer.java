@@ -0,0 +1,32 @@
+package graph;
+
+/** How a parser combines the weights of the rows that share an origin and destination into the weight of the one
+ * edge between them. Parsers keep a count, sum, minimum and last weight for each route as they read, so any reducer
+ * costs the same and memory grows with the number of distinct routes, not rows. */
+public enum EdgeReducer {
+    /** the smallest weight */
+    MIN,
+    /** the mean weight. Sums are added up per chunk when parsing in parallel, so the mean can differ in its last bits
+     *  with the number of threads unless the weights are whole numbers. */
+    MEAN,
+    /** the number of rows */
+    COUNT,
+    /** the weight in the last row, as Graph.addEdge does when an edge is added again */
+    LAST;
+
+    /**
+     * Return the weight of an edge whose rows had the given number, sum, minimum and last weight.
+     */
+    double reduce(long count, double sum, double min, double last) {
+        switch (this) {
+            case MIN:
+                return min;
+            case MEAN:
+                return sum / count;
+            case COUNT:
+                return count;
+            default:
+                return last;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package graph;
+
+import heap.HashTable;
+
+import java.util.Arrays;
+
+/** Running statistics for each distinct route (origin, destination) of int node numbers: how many rows it had, and
+ * the sum, minimum and last of their weights, all in primitive arrays. Routes are numbered from 0 in order of first
+ * appearance, and an open-addressed table of route numbers finds a route's number from its ends. */
+final class EdgeStats {
+
+    private static final double MAX_LOAD = 0.5;
+
+    private int[] origins = new int[16];
+    private int[] destinations = new int[16];
+    private long[] counts = new long[16];
+    private double[] sums = new double[16];
+    private double[] mins = new double[16];
+    private double[] lasts = new double[16];
+    private int size; // number of routes
+    private long rows; // number of rows added, over all routes
+
+    private int[] table = new int[32]; // route number + 1, or 0 if empty
+
+    /**
+     * Return the number of distinct routes.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Return the number of rows added.
+     */
+    long rows() {
+        return rows;
+    }
+
+    /**
+     * Return the origin of route e.
+     */
+    int origin(int e) {
+        return origins[e];
+    }
+
+    /**
+     * Return the destination of route e.
+     */
+    int destination(int e) {
+        return destinations[e];
+    }
+
+    /**
+     * Return the weight reducer gives route e.
+     */
+    double weight(int e, EdgeReducer reducer) {
+        return reducer.reduce(counts[e], sums[e], mins[e], lasts[e]);
+    }
+
+    /**
+     * Add a row from orig to dest with the given weight.
+     */
+    void add(int orig, int dest, double weight) {
+        int e = route(orig, dest);
+        counts[e]++;
+        sums[e] += weight;
+        mins[e] = Math.min(mins[e], weight);
+        lasts[e] = weight;
+        rows++;
+    }
+
+    /**
+     * Add the rows of other, which came after this one's, with each of its node numbers v renumbered to ids[v].
+     */
+    void addAll(EdgeStats other, int[] ids) {
+        for (int f = 0; f < other.size; f++) {
+            int e = route(ids[other.origins[f]], ids[other.destinations[f]]);
+            counts[e] += other.counts[f];
+            sums[e] += other.sums[f];
+            mins[e] = Math.min(mins[e], other.mins[f]);
+            lasts[e] = other.lasts[f];
+        }
+        rows += other.rows;
+    }
+
+    /* return the number of the route from orig to dest, adding it with no rows if it is new */
+    private int route(int orig, int dest) {
+        int mask = table.length - 1;
+        int s = hash(orig, dest) & mask;
+        while (table[s] != 0) {
+            int e = table[s] - 1;
+            if (origins[e] == orig && destinations[e] == dest) {
+                return e;
+            }
+            s = (s + 1) & mask;
+        }
+        if (size == origins.length) {
+            grow();
+        }
+        int e = size++;
+        origins[e] = orig;
+        destinations[e] = dest;
+        mins[e] = Double.POSITIVE_INFINITY;
+        table[s] = e + 1;
+        if (size > table.length * MAX_LOAD) {
+            rehash();
+        }
+        return e;
+    }
+
+    private static int hash(int orig, int dest) {
+        return HashTable.spread(orig * 0x9E3779B9 + dest);
+    }
+
+    /* double the route arrays */
+    private void grow() {
+        int capacity = origins.length * 2;
+        origins = Arrays.copyOf(origins, capacity);
+        destinations = Arrays.copyOf(destinations, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+        sums = Arrays.copyOf(sums, capacity);
+        mins = Arrays.copyOf(mins, capacity);
+        lasts = Arrays.copyOf(lasts, capacity);
+    }
+
+    /* double the table and reinsert every route */
+    private void rehash() {
+        table = new int[table.length * 2];
+        int mask = table.length - 1;
+        for (int e = 0; e < size; e++) {
+            int s = hash(origins[e], destinations[e]) & mask;
+            while (table[s] != 0) {
+                s = (s + 1) & mask;
+            }
+            table[s] = e + 1;
+        }
+    }
+}
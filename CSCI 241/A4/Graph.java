@@ -24,11 +24,13 @@ public class Graph {
      * Return the node with id s. If no such node exists already, create and return it.
      */
     public Node getNode(String s) {
-        if (nodes.containsKey(s)) {
-            return nodes.get(s);
+        Node n = nodes.get(s);
+        if (n == null) {
+            // put, not computeIfAbsent, so that new nodes join the end of their bucket and
+            // getNodes() iterates them in the same order as before
+            n = new Node(s);
+            nodes.put(s, n);
         }
-        Node n = new Node(s);
-        nodes.put(s, n);
         return n;
     }
 
@@ -47,6 +49,14 @@ public class Graph {
         orig.addNeighbor(dest, distance);
     }
 
+    /**
+     * Return an immutable CsrGraph with this graph's nodes and edges, for fast repeated searches. Later changes to this
+     * graph do not affect it.
+     */
+    public CsrGraph freeze() {
+        return new CsrGraph(nodes);
+    }
+
     /**
      * Print a report of the graph's statistics, including number of nodes, number of edges, and average degree.
      */
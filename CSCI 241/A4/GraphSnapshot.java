@@ -0,0 +1,222 @@
+package graph;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/*
+ * Author: Ben Fry-Holman
+ * Date: 8/11/2024
+ * Purpose: Paths and Graphs for A4
+ */
+
+/** Writes a graph to a compact binary snapshot file and loads it back as a CsrGraph. Loading maps the file into
+ * memory, decodes the node ids and bulk-copies the offsets, targets and weights into the CsrGraph's arrays, so a
+ * snapshot starts answering shortest-path queries much sooner than a text file can be parsed, and answers them as
+ * fast as a graph that was frozen in memory.
+ *
+ * The file is little-endian, with every section starting on an 8-byte boundary:
+ *   header: magic "GSNP", version, node count n, edge count m, id bytes, 0, and the CRC32 of the rest of the file
+ *   ids: n+1 int offsets into the id bytes, then the ids as UTF-8 (node v's id is bytes offset[v]..offset[v+1]-1)
+ *   offsets: n+1 ints, as CsrGraph's
+ *   targets: m ints
+ *   weights: m doubles
+ * Usage, to write a snapshot of a parsed file:
+ *   java graph.GraphSnapshot fileType fileName snapshotName */
+public class GraphSnapshot {
+
+    private static final int MAGIC = 0x504E5347; // "GSNP" read little-endian
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int CHECKSUM_OFFSET = 24;
+
+    private GraphSnapshot() {
+    }
+
+    /**
+     * Write graph to file as a snapshot, replacing anything there. Throws IllegalArgumentException if the graph is
+     * too large for one snapshot (2 GB).
+     */
+    public static void write(Graph graph, File file) throws IOException {
+        write(graph.freeze(), file);
+    }
+
+    /**
+     * Write graph to file as a snapshot, replacing anything there. Throws IllegalArgumentException if the graph is
+     * too large for one snapshot (2 GB).
+     */
+    public static void write(CsrGraph graph, File file) throws IOException {
+        int n = graph.getNodeCount();
+        int m = graph.getEdgeCount();
+        byte[][] ids = new byte[n][];
+        long idBytes = 0;
+        for (int v = 0; v < n; v++) {
+            ids[v] = graph.getId(v).getBytes(StandardCharsets.UTF_8);
+            idBytes += ids[v].length;
+        }
+        long size = layout(n, m, idBytes)[4];
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Graph is too large for a snapshot: " + size + " bytes.");
+        }
+
+        ByteBuffer out = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(m).putInt((int) idBytes).putInt(0).putLong(0);
+        int offset = 0;
+        out.putInt(offset);
+        for (byte[] id : ids) {
+            offset += id.length;
+            out.putInt(offset);
+        }
+        for (byte[] id : ids) {
+            out.put(id);
+        }
+        align(out);
+        for (int v = 0; v <= n; v++) {
+            out.putInt(graph.offsets[v]);
+        }
+        align(out);
+        for (int e = 0; e < m; e++) {
+            out.putInt(graph.targets[e]);
+        }
+        align(out);
+        for (int e = 0; e < m; e++) {
+            out.putDouble(graph.weights[e]);
+        }
+        out.putLong(CHECKSUM_OFFSET, checksum(out));
+
+        out.flip();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+    }
+
+    /**
+     * Map the snapshot in file and return the graph in it, after checking its checksum. Throws
+     * IllegalArgumentException if the file is not a snapshot this version can read or is damaged.
+     */
+    public static CsrGraph load(File file) throws IOException {
+        return load(file, true);
+    }
+
+    /**
+     * Map the snapshot in file and return the graph in it, checking its checksum if verify is true. Skipping the
+     * check avoids reading the whole file up front, for snapshots known to be intact. Throws
+     * IllegalArgumentException if the file is not a snapshot this version can read or is damaged.
+     */
+    public static CsrGraph load(File file, boolean verify) throws IOException {
+        if (!file.isFile()) {
+            throw new FileNotFoundException(file.getPath());
+        }
+        MappedByteBuffer map;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Not a graph snapshot: " + file);
+            }
+            // the mapping stays valid after the channel is closed
+            map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        map.order(ByteOrder.LITTLE_ENDIAN);
+        if (map.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a graph snapshot: " + file);
+        }
+        if (map.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported snapshot version " + map.getInt(4) + ": " + file);
+        }
+        int n = map.getInt(8);
+        int m = map.getInt(12);
+        int idBytes = map.getInt(16);
+        if (n < 0 || m < 0 || idBytes < 0) {
+            throw new IllegalArgumentException("Damaged graph snapshot: " + file);
+        }
+        long[] sections = layout(n, m, idBytes);
+        if (sections[4] != map.capacity()) {
+            throw new IllegalArgumentException("Damaged graph snapshot (wrong size): " + file);
+        }
+        if (verify && checksum(map) != map.getLong(CHECKSUM_OFFSET)) {
+            throw new IllegalArgumentException("Damaged graph snapshot (bad checksum): " + file);
+        }
+
+        String[] ids = new String[n];
+        int idStart = HEADER_BYTES + 4 * (n + 1);
+        for (int v = 0; v < n; v++) {
+            int from = map.getInt(HEADER_BYTES + 4 * v);
+            int to = map.getInt(HEADER_BYTES + 4 * (v + 1));
+            if (from < 0 || to < from || to > idBytes) {
+                throw new IllegalArgumentException("Damaged graph snapshot (bad id offsets): " + file);
+            }
+            byte[] id = new byte[to - from];
+            map.get(idStart + from, id);
+            ids[v] = new String(id, StandardCharsets.UTF_8);
+        }
+        int[] offsets = new int[n + 1];
+        section(map, sections[1], 4L * (n + 1)).asIntBuffer().get(offsets);
+        int[] targets = new int[m];
+        section(map, sections[2], 4L * m).asIntBuffer().get(targets);
+        double[] weights = new double[m];
+        section(map, sections[3], 8L * m).asDoubleBuffer().get(weights);
+        return new CsrGraph(ids, offsets, targets, weights);
+    }
+
+    /* Return the start of the ids, offsets, targets and weights sections, and the file size, of a snapshot with n
+     * nodes, m edges and idBytes bytes of ids. */
+    private static long[] layout(long n, long m, long idBytes) {
+        long ids = HEADER_BYTES;
+        long offsets = roundUp(ids + 4 * (n + 1) + idBytes);
+        long targets = roundUp(offsets + 4 * (n + 1));
+        long weights = roundUp(targets + 4 * m);
+        return new long[]{ids, offsets, targets, weights, weights + 8 * m};
+    }
+
+    private static long roundUp(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    /* pad out with zeros to the next 8-byte boundary */
+    private static void align(ByteBuffer out) {
+        while ((out.position() & 7) != 0) {
+            out.put((byte) 0);
+        }
+    }
+
+    /* the little-endian bytes start..start+length-1 of map, as their own buffer */
+    private static ByteBuffer section(ByteBuffer map, long start, long length) {
+        return map.slice((int) start, (int) length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /* the CRC32 of everything in buffer but the checksum itself */
+    private static long checksum(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(0, CHECKSUM_OFFSET));
+        crc.update(buffer.slice(HEADER_BYTES, buffer.capacity() - HEADER_BYTES));
+        return crc.getValue();
+    }
+
+    /** Main method: parse a graph file and write it as a snapshot.
+     *  Usage: java graph.GraphSnapshot fileType fileName snapshotName */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.out.println("Usage: GraphSnapshot fileType fileName snapshotName");
+            return;
+        }
+        Graph graph;
+        try {
+            graph = ShortestPaths.parseGraph(args[0], args[1]);
+        } catch (FileNotFoundException e) {
+            System.out.println("Could not open file " + args[1]);
+            return;
+        }
+        write(graph, new File(args[2]));
+        graph.report();
+        System.out.println("Wrote " + args[2]);
+    }
+}
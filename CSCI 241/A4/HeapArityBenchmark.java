@@ -0,0 +1,77 @@
+package graph;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Random;
+
+/*
+ * Author: Ben Fry-Holman
+ * Date: 8/11/2024
+ * Purpose: Paths and Graphs for A4
+ */
+
+/** Times ShortestPaths with heap.Heap queues of different arities on a route
+ * graph. Each run computes shortest paths from the same sample of origins.
+ * Usage:
+ *   java graph.HeapArityBenchmark fileType fileName [origins] [rounds]
+ *   java graph.HeapArityBenchmark random nodes [origins] [rounds]
+ * The second form uses a random graph with the given number of nodes and
+ * average degree 8. Defaults: 20 origins, 5 rounds. */
+public class HeapArityBenchmark {
+
+    private static final int[] ARITIES = {2, 3, 4, 8, 16};
+
+    public static void main(String[] args) throws FileNotFoundException {
+        if (args.length < 2) {
+            System.out.println("Usage: HeapArityBenchmark fileType fileName [origins] [rounds]");
+            return;
+        }
+        int originCount = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+        Graph graph = args[0].equals("random")
+                ? randomGraph(Integer.parseInt(args[1]), 8, new Random(241))
+                : ShortestPaths.parseGraph(args[0], args[1]);
+        graph.report();
+
+        ArrayList<Node> nodes = new ArrayList<Node>(graph.getNodes().values());
+        Random random = new Random(42);
+        Node[] origins = new Node[originCount];
+        for (int i = 0; i < originCount; i++) {
+            origins[i] = nodes.get(random.nextInt(nodes.size()));
+        }
+
+        System.out.print("round");
+        for (int arity : ARITIES) {
+            System.out.print("\td=" + arity + "(ms)");
+        }
+        System.out.println();
+        for (int round = 1; round <= rounds; round++) {
+            System.out.print(round);
+            for (int arity : ARITIES) {
+                ShortestPaths sp = new ShortestPaths(ShortestPaths.QueueType.HEAP, arity);
+                long start = System.nanoTime();
+                for (Node origin : origins) {
+                    sp.compute(origin);
+                }
+                System.out.printf("\t%.1f", (System.nanoTime() - start) / 1e6);
+            }
+            System.out.println();
+        }
+    }
+
+    /* a random directed graph with n nodes and about n * degree edges with
+     * weights in [1, 1000) */
+    static Graph randomGraph(int n, int degree, Random random) {
+        Graph graph = new Graph();
+        Node[] nodes = new Node[n];
+        for (int i = 0; i < n; i++) {
+            nodes[i] = graph.getNode("N" + i);
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < degree; j++) {
+                graph.addEdge(nodes[i], nodes[random.nextInt(n)], 1 + random.nextInt(999));
+            }
+        }
+        return graph;
+    }
+}
@@ -0,0 +1,66 @@
+package graph;
+
+/** What a parser did with the rows of a file: how many it read, and how many distinct routes (edges) they collapsed
+ * into under its EdgeReducer. */
+public class IngestReport {
+
+    private final long rows;
+    private final int routes;
+    private final int nodes;
+    private final EdgeReducer reducer;
+
+    /**
+     * Constructor: a report of rows read into routes edges between nodes nodes, combined by reducer.
+     */
+    IngestReport(long rows, int routes, int nodes, EdgeReducer reducer) {
+        this.rows = rows;
+        this.routes = routes;
+        this.nodes = nodes;
+        this.reducer = reducer;
+    }
+
+    /**
+     * Return the number of rows read.
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * Return the number of distinct routes, which is the number of edges in the graph.
+     */
+    public int getRoutes() {
+        return routes;
+    }
+
+    /**
+     * Return the number of nodes in the graph.
+     */
+    public int getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Return the number of rows that were combined into a route another row had already started.
+     */
+    public long getCollapsed() {
+        return rows - routes;
+    }
+
+    /**
+     * Return the reducer that combined the rows of each route.
+     */
+    public EdgeReducer getReducer() {
+        return reducer;
+    }
+
+    /**
+     * Print the report.
+     */
+    public void report() {
+        System.out.println("Ingest read: ");
+        System.out.println(rows + " rows.");
+        System.out.println(routes + " distinct routes between " + nodes + " nodes.");
+        System.out.println(getCollapsed() + " duplicate rows collapsed with " + reducer + ".");
+    }
+}
@@ -0,0 +1,251 @@
+package graph;
+
+import heap.AList;
+import heap.ObjectIntMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/** Parses delimited edge files, such as basic and DB1B files, into Graphs. The file is mapped into memory and split
+ * into byte ranges that each end just after a newline. Each range is split into fields by a CsvTokenizer that keeps
+ * only the origin, destination and weight columns, and its rows go into an EdgeBuffer: the codes are interned as
+ * bytes by a CodeTable, and rows with the same origin and destination are collapsed as they are read into one route
+ * of EdgeStats, so no String is made for a line, a field or a repeated code, and memory grows with the distinct
+ * routes rather than the rows. With more than one thread the ranges are parsed on worker threads.
+ *
+ * The buffers are merged one after another in file order, renumbering their codes and routes in order of first
+ * appearance in the whole file. The Graph is then built from the merged routes: first a Node for each code, in that
+ * order, then an edge for each route, in that order, weighted by an EdgeReducer. With EdgeReducer.LAST that is the
+ * graph a line-by-line parse with Graph.addEdge gives: the same nodes, created in the same order, the same edges,
+ * added in the same order, and for repeated edges the weight from the last line. The graph does not depend on the
+ * number of threads (but see EdgeReducer.MEAN). Codes are decoded with the platform charset, as Scanner does. */
+final class ParallelParser {
+
+    // ranges per thread, so that a slow range does not leave other threads idle
+    private static final int RANGES_PER_THREAD = 4;
+    // the largest range mapped at once
+    private static final long MAX_RANGE = 1L << 28;
+
+    // slots of the kept columns, in the order parse() is given them
+    private static final int ORIGIN = 0;
+    private static final int DEST = 1;
+    private static final int WEIGHT = 2;
+
+    private ParallelParser() {
+    }
+
+    /** A parsed graph and the report of how its rows were collapsed. */
+    static final class Ingest {
+        final Graph graph;
+        final IngestReport report;
+
+        Ingest(Graph graph, IngestReport report) {
+            this.graph = graph;
+            this.report = report;
+        }
+    }
+
+    /**
+     * Parse the rows in file from byte offset start to the end and return the graph they describe, with each edge
+     * weighted by reducer from the rows that share its origin and destination. Fields are split at delimiter, and
+     * columns gives the columns of each row's origin, destination and weight. Only the first maxLines non-blank lines
+     * are parsed, or every line if maxLines is negative; limiting the lines parses on one thread. Throws
+     * IllegalArgumentException if a line is missing a field, or NumberFormatException if a weight is not a number.
+     */
+    static Ingest parse(File file, long start, char delimiter, int[] columns, int threads, long maxLines,
+            EdgeReducer reducer) {
+        if (columns.length != 3) {
+            throw new IllegalArgumentException("Expected origin, destination and weight columns.");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1: " + threads);
+        }
+        if (maxLines >= 0) {
+            threads = 1;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long[] bounds = split(channel, start, threads);
+            Routes routes = new Routes();
+            if (threads == 1) {
+                long remaining = maxLines;
+                for (int i = 0; i + 1 < bounds.length && remaining != 0; i++) {
+                    EdgeBuffer part = parseRange(channel, bounds[i], bounds[i + 1], delimiter, columns, remaining);
+                    routes.addAll(part);
+                    if (remaining > 0) {
+                        remaining -= part.edges.rows();
+                    }
+                }
+                return routes.build(reducer);
+            }
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<EdgeBuffer>> parts = new ArrayList<Future<EdgeBuffer>>();
+                for (int i = 0; i + 1 < bounds.length; i++) {
+                    long from = bounds[i];
+                    long to = bounds[i + 1];
+                    parts.add(pool.submit(() -> parseRange(channel, from, to, delimiter, columns, -1)));
+                }
+                for (Future<EdgeBuffer> part : parts) {
+                    routes.addAll(part.get());
+                }
+                return routes.build(reducer);
+            } finally {
+                pool.shutdownNow();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while parsing " + file, e);
+        } catch (ExecutionException e) {
+            // rethrow what the worker threw, as parsing on one thread would
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof IOException) {
+                throw new UncheckedIOException((IOException) e.getCause());
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Return the fields of the first line of file, split at delimiter, or an empty array if the file is empty.
+     */
+    static String[] readHeader(File file, char delimiter) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long end = nextLineStart(channel, 0, ByteBuffer.allocate(4096));
+            CsvTokenizer header = new CsvTokenizer(channel.map(FileChannel.MapMode.READ_ONLY, 0, end), delimiter,
+                    null, Charset.defaultCharset());
+            if (!header.next()) {
+                return new String[0];
+            }
+            String[] fields = new String[header.fieldCount()];
+            for (int i = 0; i < fields.length; i++) {
+                fields[i] = header.string(i);
+            }
+            return fields;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Return the byte offset just after the first line of file, where the lines after a header line start. */
+    static long afterFirstLine(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return nextLineStart(channel, 0, ByteBuffer.allocate(4096));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /* Return the boundaries of the ranges to parse: start, each cut, and the file size. Each cut is moved forward to
+     * just after the next newline, so no line is split. */
+    private static long[] split(FileChannel channel, long start, int threads) throws IOException {
+        long size = channel.size();
+        long length = Math.max(0, size - start);
+        int ranges = threads == 1 ? 1 : threads * RANGES_PER_THREAD;
+        int count = (int) Math.max(ranges, (length + MAX_RANGE - 1) / MAX_RANGE);
+        long[] bounds = new long[count + 1];
+        bounds[0] = start;
+        int n = 1;
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        for (int i = 1; i < count; i++) {
+            long cut = Math.max(start + length * i / count, bounds[n - 1]);
+            cut = nextLineStart(channel, cut, probe);
+            if (cut > bounds[n - 1] && cut < size) {
+                bounds[n++] = cut;
+            }
+        }
+        bounds[n++] = size;
+        return Arrays.copyOf(bounds, n);
+    }
+
+    /* Return the position just after the first newline at or after pos, or the file size if there is none. */
+    private static long nextLineStart(FileChannel channel, long pos, ByteBuffer probe) throws IOException {
+        while (true) {
+            probe.clear();
+            int read = channel.read(probe, pos);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += read;
+        }
+    }
+
+    /* parse the lines in bytes from..to-1 of the file into a new EdgeBuffer, stopping after maxLines lines unless
+     * maxLines is negative */
+    private static EdgeBuffer parseRange(FileChannel channel, long from, long to, char delimiter, int[] columns,
+            long maxLines) throws IOException {
+        EdgeBuffer buffer = new EdgeBuffer();
+        CsvTokenizer line = new CsvTokenizer(channel.map(FileChannel.MapMode.READ_ONLY, from, to - from), delimiter,
+                columns, Charset.defaultCharset());
+        ByteBuffer view = line.view();
+        while ((maxLines < 0 || buffer.edges.rows() < maxLines) && line.next()) {
+            int orig = buffer.codes.intern(line.bytes(ORIGIN, view));
+            int dest = buffer.codes.intern(line.bytes(DEST, view));
+            buffer.edges.add(orig, dest, line.parseDouble(WEIGHT));
+        }
+        return buffer;
+    }
+
+    /** The rows parsed from one range, with each airport code interned to a small int in order of first
+     * appearance and each route's rows collapsed. */
+    static final class EdgeBuffer {
+        private final CodeTable codes = new CodeTable();
+        private final EdgeStats edges = new EdgeStats();
+    }
+
+    /** The routes of every range merged so far, with codes numbered in order of first appearance in the file. */
+    static final class Routes {
+        private final ObjectIntMap<String> ids = new ObjectIntMap<String>(64, -1);
+        private final AList<String> names = new AList<String>(); // names.get(i) has number i
+        private final EdgeStats edges = new EdgeStats();
+
+        /** Merge in the routes of part, which came after every part merged so far. */
+        void addAll(EdgeBuffer part) {
+            Charset charset = Charset.defaultCharset();
+            int[] renumber = new int[part.codes.size()];
+            for (int i = 0; i < renumber.length; i++) {
+                String name = part.codes.name(i, charset);
+                int id = ids.putIntIfAbsent(name, names.size());
+                if (id == ids.getMissingValue()) {
+                    id = names.size();
+                    names.append(name);
+                }
+                renumber[i] = id;
+            }
+            edges.addAll(part.edges, renumber);
+        }
+
+        /** Build the graph of the merged routes, with edges weighted by reducer. */
+        Ingest build(EdgeReducer reducer) {
+            Graph graph = new Graph();
+            Node[] nodes = new Node[names.size()];
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = graph.getNode(names.get(i));
+            }
+            for (int e = 0; e < edges.size(); e++) {
+                graph.addEdge(nodes[edges.origin(e)], nodes[edges.destination(e)], edges.weight(e, reducer));
+            }
+            return new Ingest(graph, new IngestReport(edges.rows(), edges.size(), nodes.length, reducer));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package graph;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Random;
+
+/*
+ * Author: Ben Fry-Holman
+ * Date: 8/11/2024
+ * Purpose: Paths and Graphs for A4
+ */
+
+/** Times ShortestPaths with each kind of priority queue on a sparse and a
+ * dense graph, to show where the pairing heap's cheap decrease-key pays off.
+ * AUTO uses a radix heap when the weights are integers, as they are in the
+ * random graphs and in DB1B data.
+ * Usage:
+ *   java graph.QueueBenchmark [nodes] [sparseDegree] [denseDegree] [origins]
+ *   java graph.QueueBenchmark fileType fileName [origins]
+ * The first form builds two random graphs with the same nodes and the
+ * given average degrees (defaults: 20000 nodes, degrees 4 and 200, 10
+ * origins); the second times a parsed flight graph. */
+public class QueueBenchmark {
+
+    public static void main(String[] args) throws FileNotFoundException {
+        if (args.length >= 2 && !Character.isDigit(args[0].charAt(0))) {
+            int origins = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+            run(args[1], ShortestPaths.parseGraph(args[0], args[1]), origins);
+            return;
+        }
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int sparse = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int dense = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        int origins = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        Random random = new Random(241);
+        run("sparse (degree " + sparse + ")",
+                HeapArityBenchmark.randomGraph(n, sparse, random), origins);
+        run("dense (degree " + dense + ")",
+                HeapArityBenchmark.randomGraph(n, dense, random), origins);
+    }
+
+    /* time compute from the same random origins with each queue type,
+     * three times over so that the last round is warmed up */
+    private static void run(String name, Graph graph, int originCount) {
+        System.out.println(name + ":");
+        graph.report();
+        ArrayList<Node> nodes = new ArrayList<Node>(graph.getNodes().values());
+        Random random = new Random(42);
+        Node[] origins = new Node[originCount];
+        for (int i = 0; i < originCount; i++) {
+            origins[i] = nodes.get(random.nextInt(nodes.size()));
+        }
+        System.out.println("round\tHEAP(ms)\tHEAP d=4(ms)\tINDEXED(ms)\tPAIRING(ms)\tAUTO(ms)");
+        for (int round = 1; round <= 3; round++) {
+            System.out.print(round);
+            time(new ShortestPaths(ShortestPaths.QueueType.HEAP), origins);
+            time(new ShortestPaths(ShortestPaths.QueueType.HEAP, 4), origins);
+            time(new ShortestPaths(ShortestPaths.QueueType.INDEXED), origins);
+            time(new ShortestPaths(ShortestPaths.QueueType.PAIRING), origins);
+            time(new ShortestPaths(ShortestPaths.QueueType.AUTO), origins);
+            System.out.println();
+        }
+    }
+
+    private static void time(ShortestPaths sp, Node[] origins) {
+        long start = System.nanoTime();
+        for (Node origin : origins) {
+            sp.compute(origin);
+        }
+        System.out.printf("\t%.1f\t", (System.nanoTime() - start) / 1e6);
+    }
+}
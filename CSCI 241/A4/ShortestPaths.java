@@ -1,12 +1,20 @@
 package graph;
 
+import heap.AList;
+import heap.HashTable;
 import heap.Heap;
+import heap.IndexedDoubleHeap;
+import heap.MinPriorityQueue;
+import heap.PairingHeap;
+import heap.RadixHeap;
+import heap.TopKHeap;
 
+import java.util.Arrays;
 import java.util.Map;
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 
 /*
  * Author: Ben Fry-Holman
@@ -24,20 +32,98 @@ import java.io.FileNotFoundException;
  *   Node b = g.getNode("B");
  *   LinkedList<Node> abPath = sp.getShortestPath(b);
  *   double abPathLength = sp.getShortestPathLength(b);
+ *
+ * The priority queue is chosen with a QueueType. Every type computes the
+ * same distances; HEAP and INDEXED also pick the same paths, while the
+ * others may pick a different one of several equally short paths.
  *   */
 public class ShortestPaths {
+
+    /** The priority queues compute can use. */
+    public enum QueueType {
+        /** heap.Heap over Node values with boxed Double priorities */
+        HEAP,
+        /** heap.IndexedDoubleHeap over dense int ids with primitive keys;
+         *  nodes are numbered in the order they are discovered */
+        INDEXED,
+        /** heap.PairingHeap, whose O(1) decrease-key favors dense graphs */
+        PAIRING,
+        /** heap.RadixHeap over dense int ids with long distances; every edge
+         *  weight reached must be a nonnegative integer, as DB1B distances
+         *  in whole miles are */
+        RADIX,
+        /** RADIX if every edge weight reached is a nonnegative integer, else
+         *  INDEXED. The first search starts with a radix heap and, on
+         *  meeting a weight it cannot use, starts over with an indexed heap;
+         *  the ShortestPaths then remembers this and uses INDEXED from the
+         *  start for every later search. */
+        AUTO
+    }
+
+    // weights at or above this might not sum exactly as doubles
+    private static final double MAX_RADIX_WEIGHT = 1L << 40;
+
     // stores auxiliary data associated with each node for the shortest
     // paths computation:
-    private HashMap<Node, PathData> paths;
+    private HashTable<Node, PathData> paths;
+    private final QueueType queueType; // the queue compute uses
+    private final int arity; // children per node of a HEAP queue
+    private IndexedDoubleHeap indexed; // reused by INDEXED computations
+    private RadixHeap radix; // reused by RADIX computations
+    private boolean radixFailed; // true once AUTO has met a weight RADIX cannot use
+
+    /**
+     * Constructor: compute with a heap.Heap.
+     */
+    public ShortestPaths() {
+        this(QueueType.HEAP);
+    }
+
+    /**
+     * Constructor: compute with the given kind of priority queue.
+     */
+    public ShortestPaths(QueueType queueType) {
+        this(queueType, 2);
+    }
+
+    /**
+     * Constructor: compute with the given kind of priority queue, using a
+     * heap.Heap with the given arity if the type is HEAP.
+     */
+    public ShortestPaths(QueueType queueType, int arity) {
+        this.queueType = queueType;
+        this.arity = arity;
+    }
 
     /**
      * Compute the shortest path to all nodes from origin using Dijkstra's algorithm. Fill in the paths field, which
      * associates each Node with its PathData record, storing total distance from the source, and the backpointer to the
      * previous node on the shortest path. Precondition: origin is a node in the Graph.
+     * @throws IllegalArgumentException if the queue type is RADIX and an edge weight reached from origin is not a
+     * nonnegative integer.
      */
     public void compute(Node origin) {
-        paths = new HashMap<Node, PathData>();
-        Heap<Node, Double> toProcess = new Heap<>();
+        if (queueType == QueueType.INDEXED) {
+            computeIndexed(origin);
+            return;
+        }
+        if (queueType == QueueType.RADIX || queueType == QueueType.AUTO && !radixFailed) {
+            if (!computeRadix(origin)) {
+                if (queueType == QueueType.RADIX) {
+                    throw new IllegalArgumentException("Edge weights must be nonnegative integers.");
+                }
+                radixFailed = true;
+                computeIndexed(origin);
+            }
+            return;
+        }
+        if (queueType == QueueType.AUTO) {
+            computeIndexed(origin);
+            return;
+        }
+        paths = new HashTable<Node, PathData>();
+        MinPriorityQueue<Node, Double> toProcess = queueType == QueueType.PAIRING
+                ? new PairingHeap<Node, Double>() : new Heap<Node, Double>(arity);
         // origin node
         paths.put(origin, new PathData(0, null));
         toProcess.add(origin, 0.0);
@@ -51,8 +137,13 @@ public class ShortestPaths {
                 double weight = neighborEntry.getValue();
                 double newDist = currentDist + weight;
                 // if shorter than known update path data
-                if (!paths.containsKey(neighbor) || newDist < paths.get(neighbor).distance) {
+                PathData known = paths.get(neighbor);
+                if (known == null) {
                     paths.put(neighbor, new PathData(newDist, current));
+                    toProcess.add(neighbor, newDist);
+                } else if (newDist < known.distance) {
+                    known.distance = newDist;
+                    known.previous = current;
                     if (toProcess.contains(neighbor)) {
                         toProcess.changePriority(neighbor, newDist);
                     } else {
@@ -63,14 +154,103 @@ public class ShortestPaths {
         }
     }
     
+    /* compute, using an IndexedDoubleHeap keyed by each node's dense id,
+     * which is its position in discovered */
+    private void computeIndexed(Node origin) {
+        paths = new HashTable<Node, PathData>();
+        if (indexed == null) {
+            indexed = new IndexedDoubleHeap();
+        }
+        IndexedDoubleHeap toProcess = indexed;
+        toProcess.clear();
+        AList<Node> discovered = new AList<Node>();
+        PathData start = new PathData(0, null);
+        start.id = 0;
+        discovered.append(origin);
+        paths.put(origin, start);
+        toProcess.add(0, 0.0);
+        while (toProcess.size() > 0) {
+            // the polled key is the node's final distance
+            double currentDist = toProcess.peekKey();
+            Node current = discovered.get(toProcess.poll());
+            for (Map.Entry<Node, Double> neighborEntry : current.getNeighbors().entrySet()) {
+                Node neighbor = neighborEntry.getKey();
+                double newDist = currentDist + neighborEntry.getValue();
+                PathData known = paths.get(neighbor);
+                if (known == null) {
+                    known = new PathData(newDist, current);
+                    known.id = discovered.size();
+                    discovered.append(neighbor);
+                    paths.put(neighbor, known);
+                    toProcess.add(known.id, newDist);
+                } else if (newDist < known.distance) {
+                    known.distance = newDist;
+                    known.previous = current;
+                    if (toProcess.contains(known.id)) {
+                        toProcess.decreaseKey(known.id, newDist);
+                    } else {
+                        toProcess.add(known.id, newDist);
+                    }
+                }
+            }
+        }
+    }
+
+    /* compute, using a RadixHeap over integer distances keyed by each node's
+     * dense id, as in computeIndexed. Return false, leaving paths
+     * incomplete, on reaching an edge whose weight is not a nonnegative
+     * integer below MAX_RADIX_WEIGHT. */
+    private boolean computeRadix(Node origin) {
+        paths = new HashTable<Node, PathData>();
+        if (radix == null) {
+            radix = new RadixHeap();
+        }
+        RadixHeap toProcess = radix;
+        toProcess.clear();
+        AList<Node> discovered = new AList<Node>();
+        PathData start = new PathData(0, null);
+        start.id = 0;
+        discovered.append(origin);
+        paths.put(origin, start);
+        toProcess.add(0, 0);
+        while (toProcess.size() > 0) {
+            long currentDist = toProcess.peekKey();
+            Node current = discovered.get(toProcess.poll());
+            for (Map.Entry<Node, Double> neighborEntry : current.getNeighbors().entrySet()) {
+                double weight = neighborEntry.getValue();
+                if (!(weight >= 0 && weight < MAX_RADIX_WEIGHT && weight == Math.rint(weight))) {
+                    return false;
+                }
+                Node neighbor = neighborEntry.getKey();
+                long newDist = currentDist + (long) weight;
+                PathData known = paths.get(neighbor);
+                if (known == null) {
+                    known = new PathData(newDist, current);
+                    known.id = discovered.size();
+                    discovered.append(neighbor);
+                    paths.put(neighbor, known);
+                    toProcess.add(known.id, newDist);
+                } else if (newDist < known.distance) {
+                    known.distance = newDist;
+                    known.previous = current;
+                    // nonnegative weights mean a node whose distance improves
+                    // has not been polled yet
+                    toProcess.decreaseKey(known.id, newDist);
+                }
+            }
+        }
+        return true;
+    }
+
     /**
      * Returns the length of the shortest path from the origin to destination. If no path exists, return
      * Double.POSITIVE_INFINITY. Precondition: destination is a node in the graph, and compute(origin) has been called.
      */
     public double shortestPathLength(Node destination) {
         // path reached??? then return distance
-        if (paths.containsKey(destination)) {
-            return paths.get(destination).distance;
+        PathData data = paths.get(destination);
+        if (data != null) {
+            return data.distance;
         } else {
             return Double.POSITIVE_INFINITY;
         }
@@ -83,12 +263,14 @@ public class ShortestPaths {
      */
     public LinkedList<Node> shortestPath(Node destination) {
         // path exists???
-        if (!paths.containsKey(destination)) {
+        PathData data = paths.get(destination);
+        if (data == null) {
             return null;
         }
         // remake the path
         LinkedList<Node> path = new LinkedList<>();
-        Node current = destination;
+        path.addFirst(destination);
+        Node current = data.previous;
         while (current != null) {
             path.addFirst(current); 
             // add node over and over to front to reverse the path
@@ -97,6 +279,17 @@ public class ShortestPaths {
         return path;
     }
 
+    /**
+     * Returns the (up to) k nodes nearest the origin, closest first; the origin itself comes first at distance 0.
+     * Only k candidates are held at a time. Precondition: compute(origin) has been called and k >= 1.
+     */
+    public LinkedList<Node> nearest(int k) {
+        TopKHeap<Node, Double> closest = new TopKHeap<Node, Double>(k);
+        paths.forEach((node, data) -> closest.offer(node, data.distance));
+        Node[] sorted = new Node[closest.size()];
+        closest.drainSorted(sorted);
+        return new LinkedList<>(Arrays.asList(sorted));
+    }
 
     /**
      * Inner class representing data used by Dijkstra's algorithm in the process of computing shortest paths from a
@@ -105,6 +298,7 @@ public class ShortestPaths {
     class PathData {
         double distance; // distance of the shortest path from source
         Node previous; // previous node in the path from the source
+        int id = -1; // dense id of the node, for INDEXED computations
 
         /**
          * constructor: initialize distance and previous node
@@ -118,16 +312,18 @@ public class ShortestPaths {
 
     /**
      * Static helper method to open and parse a file containing graph information. Can parse either a basic file or a
-     * DB1B CSV file with flight data. See GraphParser, BasicParser, and DB1BParser for more.
+     * DB1B CSV file with flight data, using a thread per available processor. See GraphParser, BasicParser, and
+     * DB1BParser for more.
      */
     protected static Graph parseGraph(String fileType, String fileName) throws
             FileNotFoundException {
         // create an appropriate parser for the given file type
         GraphParser parser;
+        int threads = Runtime.getRuntime().availableProcessors();
         if (fileType.equals("basic")) {
-            parser = new BasicParser();
+            parser = new BasicParser(threads);
         } else if (fileType.equals("db1b")) {
-            parser = new DB1BParser();
+            parser = new DB1BParser(threads);
         } else {
             throw new IllegalArgumentException(
                     "Unsupported file type: " + fileType);
@@ -151,6 +347,12 @@ public class ShortestPaths {
             destCode = args[3];
         }
     
+        // a binary snapshot is loaded straight into a CsrGraph and searched as one
+        if (fileType.equals("binary")) {
+            searchSnapshot(fileName, origCode, destCode);
+            return;
+        }
+
         // parse a graph with the given type and filename
         Graph graph;
         try {
@@ -161,7 +363,7 @@ public class ShortestPaths {
         }
         graph.report();
         // get shortest path from origin
-        ShortestPaths sp = new ShortestPaths();
+        ShortestPaths sp = new ShortestPaths(QueueType.AUTO);
         Node origin = graph.getNode(origCode);
         sp.compute(origin);
         // if no destination, print shortest path to all nodes
@@ -187,4 +389,54 @@ public class ShortestPaths {
             }
         }
     }
+
+    /* The binary file type for main: load the snapshot in fileName and print what main prints for a parsed file. */
+    private static void searchSnapshot(String fileName, String origCode, String destCode) {
+        CsrGraph graph;
+        try {
+            graph = GraphSnapshot.load(new File(fileName));
+        } catch (IOException e) {
+            System.out.println("Could not open file " + fileName);
+            return;
+        } catch (IllegalArgumentException e) {
+            System.out.println("Could not read file " + fileName + ": " + e.getMessage());
+            return;
+        }
+        graph.report();
+        int origin = graph.indexOf(origCode);
+        if (origin < 0) {
+            // a parsed graph gains an unknown origin as a node without edges, which reaches only itself
+            if (destCode == null) {
+                System.out.println("Shortest paths from " + origCode + ":");
+                System.out.println(origCode + ": " + 0.0);
+            } else if (destCode.equals(origCode)) {
+                System.out.println(origCode + " " + 0.0);
+            } else {
+                System.out.println("No path exists from " + origCode + " to " + destCode);
+            }
+            return;
+        }
+        CsrShortestPaths sp = new CsrShortestPaths(graph);
+        sp.compute(origin);
+        if (destCode == null) {
+            System.out.println("Shortest paths from " + origCode + ":");
+            for (int v = 0; v < graph.getNodeCount(); v++) {
+                double dist = sp.shortestPathLength(v);
+                if (dist < Double.POSITIVE_INFINITY) {
+                    System.out.println(graph.getId(v) + ": " + dist);
+                }
+            }
+        } else {
+            int destination = graph.indexOf(destCode);
+            int[] path = destination < 0 ? null : sp.shortestPath(destination);
+            if (path == null) {
+                System.out.println("No path exists from " + origCode + " to " + destCode);
+            } else {
+                for (int v : path) {
+                    System.out.print(graph.getId(v) + " ");
+                }
+                System.out.println(sp.shortestPathLength(destination));
+            }
+        }
+    }
 }